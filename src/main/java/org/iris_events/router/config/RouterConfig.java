@@ -3,7 +3,10 @@ package org.iris_events.router.config;
 import io.smallrye.config.ConfigMapping;
 import io.smallrye.config.WithDefault;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @ConfigMapping(prefix = "iris.router")
 public interface RouterConfig {
@@ -18,5 +21,266 @@ public interface RouterConfig {
     @WithDefault("[]")
     List<String> nonRpcEvents();
 
+    /**
+     * Accept binary client frames, see {@link org.iris_events.router.ws.ClientMessageParser#parseBinary(byte[])}
+     */
+    @WithDefault("false")
+    boolean binaryFrames();
+
+    /**
+     * Maximum number of requests client can send in a single batch frame
+     */
+    @WithDefault("50")
+    int maxBatchSize();
+
+    /**
+     * Where message handlers run
+     */
+    @WithDefault("io-thread")
+    HandlerExecution handlerExecution();
+
+    /**
+     * How correlation ids of backend requests are generated
+     */
+    @WithDefault("counter")
+    CorrelationIds correlationIds();
+
+    Limits limits();
+
+    Compression compression();
+
+    Outbound outbound();
+
+    RateLimit rateLimit();
+
+    Validation validation();
+
+    Registry registry();
+
+    enum HandlerExecution {
+        /**
+         * All handlers run on websocket I/O thread
+         */
+        IO_THREAD,
+        /**
+         * Blocking handlers run on virtual threads, requests of a session are still handled in order
+         */
+        VIRTUAL_THREAD
+    }
+
+    enum CorrelationIds {
+        /**
+         * Router instance prefix and a counter, shortest ids
+         */
+        COUNTER,
+        /**
+         * Thread local random
+         */
+        RANDOM,
+        /**
+         * Random UUID from shared secure random
+         */
+        UUID
+    }
+
+    interface Limits {
+
+        /**
+         * Maximum size of client frame in bytes, larger frames are rejected with an error event before they are parsed.
+         * Websocket container closes the connection with 1009 (too big) on frames four times this size
+         */
+        @WithDefault("1048576")
+        int maxFrameSize();
+
+        /**
+         * Maximum size of request payload in bytes
+         */
+        @WithDefault("524288")
+        int maxPayloadSize();
+
+        /**
+         * Maximum payload size per event type, overrides {@link #maxPayloadSize()}
+         */
+        Map<String, Integer> events();
+    }
+
+    interface Validation {
+
+        /**
+         * Validate client payloads against json schemas of their event types
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Directory or {@code classpath:} location of schemas, schema of event type is {@code <location>/<event type>.json}
+         */
+        @WithDefault("classpath:schemas")
+        String schemaLocation();
+
+        /**
+         * Event types to validate. Required for classpath locations, when not set all schemas in directory are loaded
+         */
+        Optional<List<String>> events();
+    }
+
+    interface Registry {
+
+        /**
+         * Number of session registry shards, rounded up to a power of two. Defaults to number of available processors
+         */
+        Optional<Integer> shards();
+
+        /**
+         * Minimum number of sessions for bulk operations, like broadcasts and heartbeats, to visit shards in parallel
+         */
+        @WithDefault("1000")
+        int parallelThreshold();
+
+        /**
+         * Sessions a broadcast writes to in one event loop task, before yielding to other I/O of the event loop
+         */
+        @WithDefault("256")
+        int fanOutBatchSize();
+    }
+
+    interface Outbound {
+
+        /**
+         * Maximum number of frames waiting to be written to a session
+         */
+        @WithDefault("1000")
+        int maxMessages();
+
+        /**
+         * Maximum total size in bytes of utf-8 encoded frames waiting to be written to a session
+         */
+        @WithDefault("4194304")
+        long maxBytes();
+
+        /**
+         * What to do when a frame does not fit in the queue
+         */
+        @WithDefault("drop-oldest")
+        OverflowPolicy overflowPolicy();
+
+        /**
+         * Close code used by {@link OverflowPolicy#CLOSE}, 1013 is "try again later"
+         */
+        @WithDefault("1013")
+        int closeCode();
+
+        /**
+         * User and broadcast event types of which only the latest frame per subscription id is kept while a session
+         * is behind with writes
+         */
+        @WithDefault("[]")
+        List<String> conflateEvents();
+
+        Coalescing coalescing();
+    }
+
+    /**
+     * Writing of queued frames as one json array frame, for clients that ask for it with
+     * {@value org.iris_events.router.ws.SocketV1#IRIS_COALESCE_HEADER} header on handshake
+     */
+    interface Coalescing {
+
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * How long the first queued frame may wait for others
+         */
+        @WithDefault("5ms")
+        Duration maxDelay();
+
+        /**
+         * Maximum number of frames in an array frame
+         */
+        @WithDefault("20")
+        int maxBatchSize();
+    }
+
+    enum OverflowPolicy {
+        /**
+         * Discard oldest queued frames until the new one fits
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the new frame
+         */
+        DROP_NEW,
+        /**
+         * Close the websocket with {@link Outbound#closeCode()}
+         */
+        CLOSE
+    }
+
+    interface Compression {
+
+        /**
+         * Negotiate permessage-deflate with clients that offer it
+         */
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Deflate level, 1 (fastest) to 9 (best compression)
+         */
+        @WithDefault("6")
+        int level();
+
+        /**
+         * Reset compression context after each message. Saves the sliding window kept per socket, at the cost of
+         * worse ratio for similar consecutive messages
+         */
+        @WithDefault("false")
+        boolean noContextTakeover();
+    }
+
+    interface RateLimit {
+
+        /**
+         * Limit rate of messages clients can publish to backend
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Bucket of each websocket session
+         */
+        Bucket session();
+
+        /**
+         * Bucket shared by all sessions of a user
+         */
+        Bucket user();
+
+        /**
+         * Event types with their own buckets, events not listed here share default buckets
+         */
+        Map<String, EventRateLimit> events();
+    }
+
+    interface EventRateLimit {
+        Optional<Bucket> session();
+
+        Optional<Bucket> user();
+    }
+
+    interface Bucket {
+        /**
+         * Number of messages allowed in a burst
+         */
+        @WithDefault("100")
+        int capacity();
+
+        /**
+         * Sustained number of messages per second
+         */
+        @WithDefault("50")
+        int perSecond();
+    }
 
 }
@@ -4,12 +4,11 @@ import com.rabbitmq.client.AMQP;
 import io.smallrye.reactive.messaging.rabbitmq.IncomingRabbitMQMetadata;
 import io.vertx.core.buffer.Buffer;
 import org.eclipse.microprofile.reactive.messaging.Message;
-import org.iris_events.common.MDCProperties;
+import org.iris_events.router.logging.LogContext;
 import org.iris_events.router.model.AmqpMessage;
 import org.iris_events.router.model.ResponseMessageType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
 import java.util.concurrent.CompletionStage;
 
@@ -19,29 +18,6 @@ public abstract class BaseConsumer {
 
     private static final Logger log = LoggerFactory.getLogger(BaseConsumer.class);
 
-    public static void enrichMDC(final AmqpMessage m) {
-        if (m.sessionId() != null)
-            MDC.put(MDCProperties.SESSION_ID, m.sessionId());
-        if (m.userId() != null)
-            MDC.put(MDCProperties.USER_ID, m.userId());
-        if (m.clientTraceId() != null)
-            MDC.put(MDCProperties.CLIENT_TRACE_ID, m.clientTraceId());
-        if (m.correlationId() != null)
-            MDC.put(MDCProperties.CORRELATION_ID, m.correlationId());
-        if (m.ipAddress() != null)
-            MDC.put("ipAddress", m.ipAddress());
-        if (m.userAgent() != null)
-            MDC.put("userAgent", m.userAgent());
-        if (m.deviceId() != null)
-            MDC.put("deviceId", m.deviceId());
-        if (m.originServiceId() != null){
-            MDC.put("originService", m.originServiceId());
-        }
-        MDC.put(MDCProperties.EVENT_TYPE, m.eventType());
-    }
-
-
-
     protected abstract ResponseMessageType getSocketMessageType();
 
 
@@ -51,10 +27,6 @@ public abstract class BaseConsumer {
     public CompletionStage<Void> handleMessage(Message<byte[]> message) {
         var meta = message.getMetadata(IncomingRabbitMQMetadata.class).orElseThrow();
         var body = message.getPayload();
-        meta.getCorrelationId().ifPresent(correlationId -> {
-            MDC.put(MDCProperties.CORRELATION_ID, correlationId);
-        });
-
 
         Object event = meta.getHeaders().get(EVENT_TYPE);
         if (event == null) {
@@ -68,11 +40,11 @@ public abstract class BaseConsumer {
                         .build(),
                 event.toString());
         try {
-            enrichMDC(m);
+            LogContext.current().message(m);
             onMessage(m);
             return message.ack();
         } finally {
-            MDC.clear();
+            LogContext.clear();
         }
     }
 }
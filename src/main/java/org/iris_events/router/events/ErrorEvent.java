@@ -8,13 +8,27 @@ import org.iris_events.common.ErrorType;
 public record ErrorEvent(@JsonProperty("error_type") ErrorType errorType, String code, String message) implements RouterEvent {
 
     public static final String AUTHORIZATION_FAILED_CLIENT_CODE = "AUTHORIZATION_FAILED";
+    public static final String BATCH_TOO_LARGE_CLIENT_CODE = "BATCH_TOO_LARGE";
     public static final String EVENT_MISSING_CLIENT_CODE = "EVENT_MISSING";
+    public static final String FRAME_TOO_LARGE_CLIENT_CODE = "FRAME_TOO_LARGE";
+    public static final String PAYLOAD_TOO_LARGE_CLIENT_CODE = "PAYLOAD_TOO_LARGE";
     public static final String PAYLOAD_MISSING_CLIENT_CODE = "PAYLOAD_MISSING";
+    public static final String THROTTLED_CLIENT_CODE = "THROTTLED";
     public static final String TOKEN_EXPIRED_CLIENT_CODE = "TOKEN_EXPIRED";
     public static final String UNAUTHORIZED_CLIENT_CODE = "UNAUTHORIZED";
+    public static final String VALIDATION_FAILED_CLIENT_CODE = "VALIDATION_FAILED";
 
     public static final String NAME = Exchanges.ERROR.getValue();
 
+    public static final ErrorEvent AUTHORIZATION_FAILED = new ErrorEvent(ErrorType.UNAUTHORIZED,
+            AUTHORIZATION_FAILED_CLIENT_CODE, "authorization failed");
+    public static final ErrorEvent EVENT_MISSING = new ErrorEvent(ErrorType.BAD_PAYLOAD, EVENT_MISSING_CLIENT_CODE,
+            "'event' missing");
+    public static final ErrorEvent PAYLOAD_MISSING = new ErrorEvent(ErrorType.BAD_PAYLOAD, PAYLOAD_MISSING_CLIENT_CODE,
+            "'payload' missing");
+    public static final ErrorEvent TOKEN_EXPIRED = new ErrorEvent(ErrorType.UNAUTHORIZED, TOKEN_EXPIRED_CLIENT_CODE,
+            "Token has expired.");
+
     @Override
     public String getName() {
         return NAME;
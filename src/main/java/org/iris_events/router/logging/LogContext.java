@@ -0,0 +1,134 @@
+package org.iris_events.router.logging;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.iris_events.common.MDCProperties;
+import org.iris_events.router.model.AmqpMessage;
+import org.iris_events.router.model.UserSession;
+
+/**
+ * Logging context of the current thread. Holds references to what is being handled, a session, client request or
+ * backend message, instead of copying their fields to MDC up front. Fields are read only when a log record is
+ * actually emitted, see {@link LogContextFilter}.
+ * <p>
+ * Context is reused by the thread, handlers must {@link #clear()} it when done.
+ */
+public final class LogContext {
+
+    private static final ThreadLocal<LogContext> CURRENT = ThreadLocal.withInitial(LogContext::new);
+
+    private String sessionId;
+    private UserSession userSession;
+    private Map<String, List<String>> headers;
+    private String eventType;
+    private String clientTraceId;
+    private AmqpMessage message;
+
+    private LogContext() {
+    }
+
+    public static LogContext current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        final var context = CURRENT.get();
+        context.sessionId = null;
+        context.userSession = null;
+        context.headers = null;
+        context.eventType = null;
+        context.clientTraceId = null;
+        context.message = null;
+    }
+
+    public LogContext session(final String sessionId) {
+        this.sessionId = sessionId;
+        return this;
+    }
+
+    public LogContext session(final UserSession userSession) {
+        this.userSession = userSession;
+        return this;
+    }
+
+    /**
+     * Handshake headers, logged as {@code header.<name>}
+     */
+    public LogContext headers(final Map<String, List<String>> headers) {
+        this.headers = headers;
+        return this;
+    }
+
+    public LogContext request(final String eventType, final String clientTraceId) {
+        this.eventType = eventType;
+        this.clientTraceId = clientTraceId;
+        return this;
+    }
+
+    public AmqpMessage message() {
+        return message;
+    }
+
+    public LogContext message(final AmqpMessage message) {
+        this.message = message;
+        return this;
+    }
+
+    /**
+     * Wraps task to run with a copy of this context, for tasks handed over to another thread.
+     */
+    public Runnable propagate(final Runnable task) {
+        final var sessionId = this.sessionId;
+        final var userSession = this.userSession;
+        final var eventType = this.eventType;
+        final var clientTraceId = this.clientTraceId;
+        final var message = this.message;
+        return () -> {
+            final var context = current();
+            context.sessionId = sessionId;
+            context.userSession = userSession;
+            context.eventType = eventType;
+            context.clientTraceId = clientTraceId;
+            context.message = message;
+            try {
+                task.run();
+            } finally {
+                clear();
+            }
+        };
+    }
+
+    void writeTo(final BiConsumer<String, String> mdc) {
+        put(mdc, MDCProperties.SESSION_ID, sessionId);
+        if (userSession != null) {
+            put(mdc, MDCProperties.SESSION_ID, userSession.getId());
+            put(mdc, MDCProperties.USER_ID, userSession.getUserId());
+            put(mdc, "clientVersion", userSession.getClientVersion());
+            put(mdc, "deviceId", userSession.getClientDeviceId());
+        }
+        if (headers != null) {
+            headers.forEach((name, values) -> put(mdc, "header." + name, String.valueOf(values)));
+        }
+        put(mdc, MDCProperties.EVENT_TYPE, eventType);
+        put(mdc, MDCProperties.CLIENT_TRACE_ID, clientTraceId);
+        if (message != null) {
+            put(mdc, MDCProperties.SESSION_ID, message.sessionId());
+            put(mdc, MDCProperties.USER_ID, message.userId());
+            put(mdc, MDCProperties.CLIENT_TRACE_ID, message.clientTraceId());
+            put(mdc, MDCProperties.CORRELATION_ID, message.correlationId());
+            put(mdc, "ipAddress", message.ipAddress());
+            put(mdc, "userAgent", message.userAgent());
+            put(mdc, "deviceId", message.deviceId());
+            put(mdc, "originService", message.originServiceId());
+            put(mdc, MDCProperties.EVENT_TYPE, message.eventType());
+        }
+    }
+
+    private static void put(final BiConsumer<String, String> mdc, final String key, final String value) {
+        if (value != null) {
+            mdc.accept(key, value);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.iris_events.router.logging;
+
+import java.util.logging.Filter;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.ExtLogRecord;
+
+import io.quarkus.logging.LoggingFilter;
+
+/**
+ * Copies {@link LogContext} of the logging thread to MDC of the record. Handler filters run after level checks, so
+ * context is materialized only for records that are emitted.
+ */
+@LoggingFilter(name = "log-context")
+public final class LogContextFilter implements Filter {
+
+    @Override
+    public boolean isLoggable(final LogRecord record) {
+        if (record instanceof ExtLogRecord extLogRecord) {
+            LogContext.current().writeTo(extLogRecord::putMdc);
+        }
+        return true;
+    }
+}
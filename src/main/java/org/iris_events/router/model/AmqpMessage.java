@@ -8,6 +8,9 @@ import static org.iris_events.common.MessagingHeaders.Message.*;
 
 public record AmqpMessage(Buffer body, BasicProperties properties, String eventType) {
 
+    public static final String RESOURCE_TYPE = "x-resource-type";
+    public static final String RESOURCE_ID = "x-resource-id";
+
     public String userId() {
         return getStringHeader(properties, USER_ID);
     }
@@ -50,6 +53,15 @@ public record AmqpMessage(Buffer body, BasicProperties properties, String eventT
     public String deviceId() {
         return getStringHeader(properties, DEVICE);
     }
+    public String clientVersion() {
+        return getStringHeader(properties, CLIENT_VERSION);
+    }
+    public String resourceType() {
+        return getStringHeader(properties, RESOURCE_TYPE);
+    }
+    public String resourceId() {
+        return getStringHeader(properties, RESOURCE_ID);
+    }
 
     private String getStringHeader(BasicProperties props, String name) {
         var r = props.getHeaders().get(name);
@@ -17,6 +17,7 @@ public record BackendRequest(String requestId, String dataType, Instant created,
         String device, String userId, String sessionId,
         ResponseHandler responseHandler) {
 
+    private static final int MAX_REQUEST_BODY_LENGTH = 400;
     private static final Pattern SENSITIVE_PATTERN = Pattern
             .compile("\"(?:email|password|authentication|jwtToken|token)\":\"([^\"]+)\"");
 
@@ -38,12 +39,27 @@ public record BackendRequest(String requestId, String dataType, Instant created,
     }
 
     private static String shortenRequestBody(String requestBody) {
-        if (requestBody.length() > 400) {
-            return requestBody.substring(0, 400) + "...";
+        if (requestBody.length() > MAX_REQUEST_BODY_LENGTH) {
+            return requestBody.substring(0, MAX_REQUEST_BODY_LENGTH) + "...";
         }
         return requestBody;
     }
 
+    /**
+     * Decodes only the part of the body that is kept in {@link #requestBody()}, never cutting a multibyte character.
+     */
+    public static String bodyPreview(Buffer body) {
+        if (body.length() > MAX_REQUEST_BODY_LENGTH) {
+            var end = MAX_REQUEST_BODY_LENGTH;
+            // back off to the lead byte when the cut falls on a utf-8 continuation byte
+            while (end > 0 && (body.getByte(end) & 0xC0) == 0x80) {
+                end--;
+            }
+            return body.getString(0, end, StandardCharsets.UTF_8.name()) + "...";
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
     public static String sanitizeBody(byte[] body) {
         return sanitizeBody(new String(body, StandardCharsets.UTF_8));
     }
@@ -2,12 +2,11 @@ package org.iris_events.router.model;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.vertx.core.json.Json;
-import org.iris_events.router.consumer.BaseConsumer;
+import org.iris_events.router.logging.LogContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.slf4j.MDC;
 
 /**
  * @author Tomaz Cerar
@@ -19,8 +18,10 @@ public abstract class DefaultResponseHandler implements ResponseHandler {
 
     @Override
     public void handle(ResponseMessageType responseMessageType, AmqpMessage message) {
+        final var logContext = LogContext.current();
+        final var outerMessage = logContext.message();
         try {
-            BaseConsumer.enrichMDC(message);
+            logContext.message(message);
             if (responseMessageType != ResponseMessageType.ERROR) {
                 onSuccess(responseMessageType, message);
             } else {
@@ -33,7 +34,7 @@ public abstract class DefaultResponseHandler implements ResponseHandler {
                 onFailure(message);
             }
         } finally {
-            MDC.clear();
+            logContext.message(outerMessage);
         }
     }
 
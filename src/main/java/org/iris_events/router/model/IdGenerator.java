@@ -0,0 +1,70 @@
+package org.iris_events.router.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.iris_events.router.config.RouterConfig;
+
+/**
+ * Generates correlation ids of backend requests. Ids only need to be unique among requests in flight, so they avoid
+ * {@link UUID#randomUUID()} and its shared {@link java.security.SecureRandom}.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Digits of the largest unsigned long in base 36
+     */
+    int BASE36_LONG_DIGITS = 13;
+
+    String next();
+
+    static IdGenerator of(final RouterConfig.CorrelationIds strategy, final UUID routerId) {
+        return switch (strategy) {
+            case COUNTER -> counter(routerId);
+            case RANDOM -> random();
+            case UUID -> uuid();
+        };
+    }
+
+    /**
+     * Router instance prefix followed by a counter, e.g. {@code 1x2kq9f0ab3c.5k}. The prefix is derived from the
+     * per process router id, so ids stay unique across routers and restarts.
+     */
+    static IdGenerator counter(final UUID routerId) {
+        final var prefix = Long.toUnsignedString(routerId.getMostSignificantBits() ^ routerId.getLeastSignificantBits(),
+                Character.MAX_RADIX) + '.';
+        final var counter = new AtomicLong();
+        return () -> prefix + Long.toString(counter.incrementAndGet(), Character.MAX_RADIX);
+    }
+
+    /**
+     * 128 random bits from {@link ThreadLocalRandom}, two 64 bit halves in base 36, each zero padded to 13 digits so
+     * different pairs never join into the same id.
+     */
+    static IdGenerator random() {
+        return () -> {
+            final var random = ThreadLocalRandom.current();
+            final var id = new char[2 * BASE36_LONG_DIGITS];
+            writeBase36(random.nextLong(), id, BASE36_LONG_DIGITS);
+            writeBase36(random.nextLong(), id, id.length);
+            return new String(id);
+        };
+    }
+
+    static IdGenerator uuid() {
+        return () -> UUID.randomUUID().toString();
+    }
+
+    /**
+     * Writes unsigned value as {@value #BASE36_LONG_DIGITS} base 36 digits ending before {@code end}.
+     */
+    private static void writeBase36(final long value, final char[] id, final int end) {
+        var remaining = value;
+        for (int i = end - 1; i >= end - BASE36_LONG_DIGITS; i--) {
+            id[i] = Character.forDigit((int) Long.remainderUnsigned(remaining, Character.MAX_RADIX), Character.MAX_RADIX);
+            remaining = Long.divideUnsigned(remaining, Character.MAX_RADIX);
+        }
+    }
+}
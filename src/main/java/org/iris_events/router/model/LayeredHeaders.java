@@ -0,0 +1,140 @@
+package org.iris_events.router.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A few per-message headers layered over a shared, immutable header template. Message headers override template
+ * entries with the same name.
+ * <p>
+ * Built then frozen: message headers are added with {@link #with(String, Object)}, which changes this instance,
+ * while the message is created, after that the map is only read. The map itself rejects all {@link Map} mutators.
+ * <p>
+ * {@code AMQP.BasicProperties} copies headers into its own map when built, so the template is still copied once per
+ * message. This replaces building an intermediate {@link java.util.HashMap} of all headers, which was copied again
+ * by the properties, see {@code BackendHeadersBenchmark}.
+ */
+public final class LayeredHeaders extends AbstractMap<String, Object> {
+
+    private static final int MAX_MESSAGE_HEADERS = 4;
+
+    private final Map<String, Object> template;
+    private final String[] names = new String[MAX_MESSAGE_HEADERS];
+    private final Object[] values = new Object[MAX_MESSAGE_HEADERS];
+    private int count;
+    private int overridden;
+    private Set<Entry<String, Object>> entrySet;
+
+    public LayeredHeaders(final Map<String, Object> template) {
+        this.template = template;
+    }
+
+    /**
+     * Adds or replaces message header in place, only while the message is being built.
+     *
+     * @return this instance
+     */
+    public LayeredHeaders with(final String name, final Object value) {
+        Objects.requireNonNull(name);
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                values[i] = value;
+                return this;
+            }
+        }
+        if (count == MAX_MESSAGE_HEADERS) {
+            throw new IllegalStateException("Too many message headers");
+        }
+        if (template.containsKey(name)) {
+            overridden++;
+        }
+        names[count] = name;
+        values[count] = value;
+        count++;
+        return this;
+    }
+
+    @Override
+    public Object get(final Object key) {
+        final var index = indexOf(key);
+        return index >= 0 ? values[index] : template.get(key);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0 || template.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return count + template.size() - overridden;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return LayeredHeaders.this.size();
+                }
+            };
+        }
+        return entrySet;
+    }
+
+    private int indexOf(final Object key) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, Object>> {
+        private final Iterator<Entry<String, Object>> templateEntries = template.entrySet().iterator();
+        private int index;
+        private Entry<String, Object> next;
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            if (index < count) {
+                next = new SimpleImmutableEntry<>(names[index], values[index]);
+                index++;
+                return true;
+            }
+            while (templateEntries.hasNext()) {
+                final var entry = templateEntries.next();
+                if (indexOf(entry.getKey()) < 0) {
+                    next = entry;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final var entry = next;
+            next = null;
+            return entry;
+        }
+    }
+}
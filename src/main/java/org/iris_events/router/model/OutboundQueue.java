@@ -0,0 +1,328 @@
+package org.iris_events.router.model;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.service.RouterMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+/**
+ * Outbound frames of a session. Only one write is handed to the container at a time, following frames wait here
+ * until it completes. Queue is bounded by number of frames and their total utf-8 size in bytes, when full
+ * {@link RouterConfig.OverflowPolicy} decides what happens.
+ * <p>
+ * Frames with a conflation key replace the pending frame with the same key in place, so only the latest of them is
+ * written once the session catches up.
+ * <p>
+ * With coalescing, frames queued within {@link RouterConfig.Coalescing#maxDelay()}, or while a write is in flight,
+ * are written together as a single json array frame.
+ * <p>
+ * Container may complete a write before {@code sendText} returns. The next frame is then written by the loop in
+ * {@link #write(String)} instead of from the completion callback, so the stack does not grow with the queue.
+ */
+public final class OutboundQueue {
+    private static final Logger log = LoggerFactory.getLogger(OutboundQueue.class);
+
+    private final Session session;
+    private final RouterConfig.Outbound config;
+    private final RouterMetrics routerMetrics;
+    private final SendHandler sendHandler = this::onSent;
+    private final boolean coalescing;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final ArrayDeque<PendingFrame> pending = new ArrayDeque<>();
+    private final HashMap<String, PendingFrame> conflated = new HashMap<>();
+    private long pendingBytes;
+    private boolean writing;
+    private boolean sending;
+    private boolean sentWhileSending;
+    private boolean closed;
+    private boolean flushScheduled;
+
+    public OutboundQueue(Session session, RouterConfig.Outbound config, RouterMetrics routerMetrics) {
+        this(session, config, routerMetrics, null);
+    }
+
+    /**
+     * @param flushScheduler schedules delayed writes of coalesced frames, null when session does not coalesce
+     */
+    public OutboundQueue(Session session, RouterConfig.Outbound config, RouterMetrics routerMetrics,
+            ScheduledExecutorService flushScheduler) {
+        this.session = session;
+        this.config = config;
+        this.routerMetrics = routerMetrics;
+        this.flushScheduler = flushScheduler;
+        this.coalescing = flushScheduler != null;
+        this.maxBatchSize = config.coalescing().maxBatchSize();
+        this.maxDelayNanos = config.coalescing().maxDelay().toNanos();
+    }
+
+    public void send(final RawMessage message) {
+        send(message.getMessage(), message.getByteLength(), message.getConflationKey());
+    }
+
+    public void send(final String frame) {
+        send(frame, null);
+    }
+
+    /**
+     * @param conflationKey key of frames superseding each other, null when frame must be written
+     */
+    public void send(final String frame, final String conflationKey) {
+        send(frame, RawMessageEncoder.utf8Length(frame), conflationKey);
+    }
+
+    private void send(final String frame, final int bytes, final String conflationKey) {
+        String write = null;
+        var scheduleFlush = false;
+        var close = false;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (!writing && pending.isEmpty() && (!coalescing || maxDelayNanos == 0)) {
+                writing = true;
+                write = frame;
+            } else if (conflationKey != null && conflate(frame, bytes, conflationKey)) {
+                return;
+            } else if (!enqueue(frame, bytes, conflationKey)) {
+                close = closed;
+            } else if (!writing) {
+                if (pending.size() >= maxBatchSize) {
+                    writing = true;
+                    write = takeBatch();
+                } else if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduleFlush = true;
+                }
+            }
+        }
+        if (close) {
+            closeSession();
+        }
+        if (scheduleFlush) {
+            flushScheduler.schedule(this::flush, maxDelayNanos, TimeUnit.NANOSECONDS);
+        }
+        if (write != null) {
+            write(write);
+        }
+    }
+
+    public boolean isCoalescing() {
+        return coalescing;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Replacement larger than the pending frame is subject to the size limit as well. When it does not fit, it is
+     * dropped with {@link RouterConfig.OverflowPolicy#DROP_NEW}, otherwise the pending frame is removed and the new one
+     * is queued as any other frame.
+     *
+     * @return true when frame replaced pending frame with the same key, or was dropped
+     */
+    private boolean conflate(final String frame, final int bytes, final String conflationKey) {
+        final var pendingFrame = conflated.get(conflationKey);
+        if (pendingFrame == null) {
+            return false;
+        }
+        final var delta = bytes - pendingFrame.bytes;
+        if (delta > 0 && pendingBytes + delta > config.maxBytes()) {
+            if (config.overflowPolicy() == RouterConfig.OverflowPolicy.DROP_NEW) {
+                routerMetrics.outboundOverflow(RouterConfig.OverflowPolicy.DROP_NEW);
+                log.debug("Outbound queue full, dropping new frame.");
+                return true;
+            }
+            pending.remove(pendingFrame);
+            conflated.remove(conflationKey);
+            pendingBytes -= pendingFrame.bytes;
+            return false;
+        }
+        pendingBytes += delta;
+        pendingFrame.bytes = bytes;
+        pendingFrame.text = frame;
+        routerMetrics.outboundConflated();
+        return true;
+    }
+
+    /**
+     * @return false when frame was not queued
+     */
+    private boolean enqueue(final String frame, final int bytes, final String conflationKey) {
+        if (fits(bytes)) {
+            add(frame, bytes, conflationKey);
+            return true;
+        }
+        final var policy = config.overflowPolicy();
+        routerMetrics.outboundOverflow(policy);
+        switch (policy) {
+            case DROP_NEW -> {
+                log.debug("Outbound queue full, dropping new frame.");
+                return false;
+            }
+            case DROP_OLDEST -> {
+                while (!pending.isEmpty() && !fits(bytes)) {
+                    poll();
+                }
+                if (!fits(bytes)) {
+                    return false;
+                }
+                add(frame, bytes, conflationKey);
+                return true;
+            }
+            default -> {
+                log.warn("Outbound queue full, closing websocket. pending frames: {}", pending.size());
+                closed = true;
+                clear();
+                return false;
+            }
+        }
+    }
+
+    private boolean fits(final int bytes) {
+        return pending.size() < config.maxMessages() && pendingBytes + bytes <= config.maxBytes();
+    }
+
+    private void add(final String frame, final int bytes, final String conflationKey) {
+        final var pendingFrame = new PendingFrame(frame, bytes, conflationKey);
+        pending.add(pendingFrame);
+        if (conflationKey != null) {
+            conflated.put(conflationKey, pendingFrame);
+        }
+        pendingBytes += bytes;
+    }
+
+    private String poll() {
+        final var pendingFrame = pending.poll();
+        if (pendingFrame.conflationKey != null) {
+            conflated.remove(pendingFrame.conflationKey);
+        }
+        pendingBytes -= pendingFrame.bytes;
+        return pendingFrame.text;
+    }
+
+    private void clear() {
+        pending.clear();
+        conflated.clear();
+        pendingBytes = 0;
+    }
+
+    private void flush() {
+        final String batch;
+        synchronized (this) {
+            flushScheduled = false;
+            if (writing || closed || pending.isEmpty()) {
+                return;
+            }
+            writing = true;
+            batch = takeBatch();
+        }
+        write(batch);
+    }
+
+    /**
+     * Takes next frame, or with coalescing up to {@code maxBatchSize} frames joined into a json array.
+     */
+    private String takeBatch() {
+        final var first = poll();
+        if (!coalescing || pending.isEmpty()) {
+            return first;
+        }
+        // utf-8 size is never less than length in chars
+        final var batch = new StringBuilder((int) Math.min(Integer.MAX_VALUE, first.length() + pendingBytes + maxBatchSize + 1));
+        batch.append('[').append(first);
+        for (int i = 1; i < maxBatchSize && !pending.isEmpty(); i++) {
+            batch.append(',').append(poll());
+        }
+        return batch.append(']').toString();
+    }
+
+    private void write(final String frame) {
+        var next = frame;
+        while (next != null) {
+            synchronized (this) {
+                sending = true;
+            }
+            try {
+                session.getAsyncRemote().sendText(next, sendHandler);
+            } catch (RuntimeException e) {
+                onSent(new SendResult(e));
+            }
+            synchronized (this) {
+                sending = false;
+                if (!sentWhileSending) {
+                    return;
+                }
+                sentWhileSending = false;
+                next = takeNext();
+            }
+        }
+    }
+
+    private void onSent(final SendResult result) {
+        final String next;
+        synchronized (this) {
+            if (!result.isOK()) {
+                log.debug("Could not write to websocket, discarding {} pending frames.", pending.size(), result.getException());
+                closed = true;
+                writing = false;
+                clear();
+                return;
+            }
+            if (sending) {
+                // completed before sendText returned, write loop continues
+                sentWhileSending = true;
+                return;
+            }
+            next = takeNext();
+        }
+        if (next != null) {
+            write(next);
+        }
+    }
+
+    /**
+     * @return next frame to write, null when nothing is pending and write is done
+     */
+    private String takeNext() {
+        if (pending.isEmpty()) {
+            writing = false;
+            return null;
+        }
+        return takeBatch();
+    }
+
+    private void closeSession() {
+        try {
+            session.close(new CloseReason(CloseReason.CloseCodes.getCloseCode(config.closeCode()), "Outbound queue full"));
+        } catch (IOException e) {
+            log.warn("Could not close websocket", e);
+        }
+    }
+
+    private static final class PendingFrame {
+        private String text;
+        private int bytes;
+        private final String conflationKey;
+
+        private PendingFrame(final String text, final int bytes, final String conflationKey) {
+            this.text = text;
+            this.bytes = bytes;
+            this.conflationKey = conflationKey;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.iris_events.router.model;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Client frame of a router event encoded once. Only client trace id differs between sends, it is spliced between
+ * pre-encoded start and end of the frame.
+ */
+public final class PreEncodedFrame {
+
+    private final RawMessage withoutTraceId;
+    private final String traceIdPrefix;
+    private final String traceIdSuffix;
+    private final int fixedByteLength;
+
+    PreEncodedFrame(final String eventName, final Buffer payload) {
+        this.withoutTraceId = RawMessageEncoder.encode(eventName, null, null, payload);
+        this.traceIdPrefix = RawMessageEncoder.traceIdPrefix(eventName);
+        this.traceIdSuffix = RawMessageEncoder.traceIdSuffix(payload);
+        this.fixedByteLength = RawMessageEncoder.utf8Length(traceIdPrefix) + RawMessageEncoder.utf8Length(traceIdSuffix);
+    }
+
+    public RawMessage withClientTraceId(final String clientTraceId) {
+        if (clientTraceId == null) {
+            return withoutTraceId;
+        }
+        final var traceId = JsonStringEncoder.getInstance().quoteAsString(clientTraceId);
+        return new RawMessage(new StringBuilder(traceIdPrefix.length() + traceId.length + traceIdSuffix.length())
+                .append(traceIdPrefix)
+                .append(traceId)
+                .append(traceIdSuffix)
+                .toString(), fixedByteLength + RawMessageEncoder.utf8Length(traceId));
+    }
+}
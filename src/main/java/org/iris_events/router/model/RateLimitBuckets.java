@@ -0,0 +1,32 @@
+package org.iris_events.router.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Token buckets of a session or user, keyed by event type. Events without their own limit share the
+ * {@link #DEFAULT_KEY} bucket.
+ */
+public final class RateLimitBuckets {
+
+    public static final String DEFAULT_KEY = "";
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>(2);
+
+    public TokenBucket get(final String key, final Function<String, TokenBucket> bucketFactory) {
+        final var bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        return buckets.computeIfAbsent(key, bucketFactory);
+    }
+
+    public boolean isIdle(final long now) {
+        for (TokenBucket bucket : buckets.values()) {
+            if (!bucket.isIdle(now)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
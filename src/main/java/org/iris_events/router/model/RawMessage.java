@@ -1,8 +1,7 @@
 package org.iris_events.router.model;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.nio.charset.StandardCharsets;
+import java.io.UncheckedIOException;
 
 import io.quarkus.runtime.annotations.RegisterForReflection;
 import org.iris_events.router.events.RouterEvent;
@@ -15,27 +14,68 @@ import io.vertx.core.buffer.Buffer;
 
 public final class RawMessage {
     private final String message;
+    private final int byteLength;
+    private final String conflationKey;
 
     public RawMessage(final String message) {
+        this(message, RawMessageEncoder.utf8Length(message));
+    }
+
+    RawMessage(final String message, final int byteLength) {
+        this(message, byteLength, null);
+    }
+
+    private RawMessage(final String message, final int byteLength, final String conflationKey) {
         this.message = message;
+        this.byteLength = byteLength;
+        this.conflationKey = conflationKey;
     }
 
     public String getMessage() {
         return message;
     }
 
+    /**
+     * @return size of the frame once utf-8 encoded by the websocket container
+     */
+    public int getByteLength() {
+        return byteLength;
+    }
+
+    /**
+     * @return key of frames superseding each other while they wait to be written, null when frame is always written
+     */
+    public String getConflationKey() {
+        return conflationKey;
+    }
+
+    /**
+     * @return same frame, superseded by later frames of the same event type and subscription
+     */
+    public RawMessage conflatable(final String eventType, final String subscriptionId) {
+        return new RawMessage(message, byteLength, subscriptionId != null ? eventType + '\n' + subscriptionId : eventType);
+    }
+
     public static RawMessageBuilder builder(ObjectMapper objectMapper){
         return new RawMessageBuilder(objectMapper);
     }
 
+    /**
+     * Encodes backend message as client frame. Frame does not depend on the recipient, it can be shared by all
+     * sessions the message is delivered to.
+     */
+    public static RawMessage of(ObjectMapper objectMapper, AmqpMessage message) {
+        return builder(objectMapper)
+                .setEventName(message.eventType())
+                .setClientTraceId(message.clientTraceId())
+                .setSubscriptionId(message.subscriptionId())
+                .setPayloadFromBuffer(message.body())
+                .build();
+    }
+
     public static class RawMessageBuilder {
 
         private static final Logger log = LoggerFactory.getLogger(RawMessageBuilder.class);
-        private static final String EVENT_FIELD = "event";
-        private static final String PAYLOAD_FIELD = "payload";
-        private static final String CLIENT_TRACE_ID_FIELD = "client_trace_id";
-        private static final String SUBSCRIPTION_ID_FIELD = "subscription_id";
-
         private final ObjectMapper objectMapper;
 
         private String eventName;
@@ -73,33 +113,18 @@ public final class RawMessage {
             return this;
         }
         public RawMessage build() {
-            final var writer = new StringWriter();
-            try {
-                final var generator = objectMapper.getFactory().createGenerator(writer);
-                generator.writeStartObject();
-                generator.writeStringField(EVENT_FIELD, this.eventName);
-                if (clientTraceId != null) {
-                    generator.writeStringField(CLIENT_TRACE_ID_FIELD, clientTraceId);
-                }
-                if (subscriptionId != null) {
-                    generator.writeStringField(SUBSCRIPTION_ID_FIELD, subscriptionId);
+            final Buffer payload;
+            if (routerEventPayload != null) {
+                try {
+                    payload = Buffer.buffer(objectMapper.writeValueAsBytes(routerEventPayload));
+                } catch (IOException e) {
+                    log.error("Could not convert json object", e);
+                    throw new UncheckedIOException(e);
                 }
-                if (routerEventPayload != null) {
-                    generator.writeFieldName(PAYLOAD_FIELD);
-                    generator.writeObject(routerEventPayload);
-                } else if (bufferPayload != null) {
-                    generator.writeFieldName(PAYLOAD_FIELD);
-                    generator.writeRawValue(bufferPayload.toString(StandardCharsets.UTF_8));
-                }
-                generator.writeEndObject();
-                generator.close();
-            } catch (IOException e) {
-                log.error("Could not convert json object", e);
-                throw new RuntimeException(e);
+            } else {
+                payload = bufferPayload;
             }
-
-            final var message = writer.toString();
-            return new RawMessage(message);
+            return RawMessageEncoder.encode(eventName, clientTraceId, subscriptionId, payload);
         }
     }
 
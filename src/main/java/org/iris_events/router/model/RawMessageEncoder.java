@@ -0,0 +1,117 @@
+package org.iris_events.router.model;
+
+import java.nio.charset.StandardCharsets;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Writes client frames without a json generator. Envelope is assembled from constant fragments and quoted string
+ * fields, payload is decoded once and appended as it is, without parsing it. Frames are sent as text through the
+ * websocket container, so the result is a String sized up front. Its utf-8 size is counted along the way, from the
+ * payload bytes and the quoted fields, so the outbound queue can limit bytes without encoding the frame.
+ */
+final class RawMessageEncoder {
+
+    private static final String EVENT_START = "{\"event\":\"";
+    private static final String CLIENT_TRACE_ID_START = "\",\"client_trace_id\":\"";
+    private static final String SUBSCRIPTION_ID_START = "\",\"subscription_id\":\"";
+    private static final String PAYLOAD_START = "\",\"payload\":";
+    private static final String OBJECT_END = "}";
+    private static final String STRING_OBJECT_END = "\"}";
+
+    private RawMessageEncoder() {
+    }
+
+    /**
+     * @param payload utf-8 encoded json, or null when frame has no payload
+     */
+    static RawMessage encode(final String eventName, final String clientTraceId, final String subscriptionId,
+            final Buffer payload) {
+        final var encoder = JsonStringEncoder.getInstance();
+        final var event = encoder.quoteAsString(eventName);
+        final var traceId = clientTraceId != null ? encoder.quoteAsString(clientTraceId) : null;
+        final var subscription = subscriptionId != null ? encoder.quoteAsString(subscriptionId) : null;
+        final var payloadText = payload != null ? payload.toString(StandardCharsets.UTF_8) : null;
+
+        // fragments are ascii, their length in chars is their length in bytes
+        var length = EVENT_START.length() + event.length;
+        var bytes = EVENT_START.length() + utf8Length(event);
+        if (traceId != null) {
+            length += CLIENT_TRACE_ID_START.length() + traceId.length;
+            bytes += CLIENT_TRACE_ID_START.length() + utf8Length(traceId);
+        }
+        if (subscription != null) {
+            length += SUBSCRIPTION_ID_START.length() + subscription.length;
+            bytes += SUBSCRIPTION_ID_START.length() + utf8Length(subscription);
+        }
+        if (payloadText != null) {
+            length += PAYLOAD_START.length() + payloadText.length() + OBJECT_END.length();
+            bytes += PAYLOAD_START.length() + payload.length() + OBJECT_END.length();
+        } else {
+            length += STRING_OBJECT_END.length();
+            bytes += STRING_OBJECT_END.length();
+        }
+
+        final var frame = new StringBuilder(length).append(EVENT_START).append(event);
+        if (traceId != null) {
+            frame.append(CLIENT_TRACE_ID_START).append(traceId);
+        }
+        if (subscription != null) {
+            frame.append(SUBSCRIPTION_ID_START).append(subscription);
+        }
+        if (payloadText != null) {
+            frame.append(PAYLOAD_START).append(payloadText).append(OBJECT_END);
+        } else {
+            frame.append(STRING_OBJECT_END);
+        }
+        return new RawMessage(frame.toString(), bytes);
+    }
+
+    static int utf8Length(final CharSequence text) {
+        var bytes = text.length();
+        for (int i = 0; i < text.length(); i++) {
+            bytes += extraUtf8Bytes(text.charAt(i));
+        }
+        return bytes;
+    }
+
+    static int utf8Length(final char[] text) {
+        var bytes = text.length;
+        for (char c : text) {
+            bytes += extraUtf8Bytes(c);
+        }
+        return bytes;
+    }
+
+    /**
+     * Surrogate pair is 4 bytes, each of its chars counts 2
+     */
+    private static int extraUtf8Bytes(final char c) {
+        if (c < 0x80) {
+            return 0;
+        }
+        if (c < 0x800 || Character.isSurrogate(c)) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * @return start of a frame with client trace id, up to the opening quote of the trace id value
+     */
+    static String traceIdPrefix(final String eventName) {
+        return EVENT_START + new String(JsonStringEncoder.getInstance().quoteAsString(eventName)) + CLIENT_TRACE_ID_START;
+    }
+
+    /**
+     * @return end of a frame without subscription id, from the closing quote of the trace id value
+     */
+    static String traceIdSuffix(final Buffer payload) {
+        if (payload == null) {
+            return STRING_OBJECT_END;
+        }
+        return PAYLOAD_START + payload.toString(StandardCharsets.UTF_8) + OBJECT_END;
+    }
+}
@@ -1,15 +1,62 @@
 package org.iris_events.router.model;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.buffer.Buffer;
 
 /**
+ * Client request envelope. Payload is either kept as a json tree ({@code payload}) or, for frames read by
+ * {@link org.iris_events.router.ws.ClientMessageParser}, as the raw bytes of the original frame ({@code rawPayload}).
+ *
  * @author Tomaz Cerar
  */
 @RegisterForReflection
 public record RequestWrapper(String event,
         @JsonProperty("client_trace_id") @JsonAlias( { "clientTraceId" }) String clientTraceId,
-        @JsonProperty("payload") ObjectNode payload){
+        @JsonProperty("payload") ObjectNode payload,
+        @JsonIgnore Buffer rawPayload) {
+
+    public RequestWrapper(String event, String clientTraceId, ObjectNode payload) {
+        this(event, clientTraceId, payload, null);
+    }
+
+    public static RequestWrapper raw(String event, String clientTraceId, Buffer rawPayload) {
+        return new RequestWrapper(event, clientTraceId, null, rawPayload);
+    }
+
+    public boolean hasPayload() {
+        return payload != null || rawPayload != null;
+    }
+
+    /**
+     * @return payload as json bytes, raw payload is returned as is without copying
+     */
+    public Buffer payloadAsBuffer(ObjectMapper objectMapper) {
+        if (rawPayload != null) {
+            return rawPayload;
+        }
+        try {
+            return Buffer.buffer(objectMapper.writeValueAsBytes(payload));
+        } catch (IOException e) {
+            throw new RuntimeException("Could not serialize to json", e);
+        }
+    }
+
+    public <T> T readPayload(ObjectMapper objectMapper, Class<T> type) {
+        if (rawPayload == null) {
+            return objectMapper.convertValue(payload, type);
+        }
+        try {
+            return objectMapper.readValue(rawPayload.getBytes(), type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -7,5 +7,14 @@ public enum ResponseMessageType {
     USER,
     SESSION,
     BROADCAST,
+    /**
+     * Sessions of a device or a client version, see {@link AmqpMessage#deviceId()} and
+     * {@link AmqpMessage#clientVersion()}
+     */
+    TARGETED,
+    /**
+     * Sessions subscribed to a resource, see {@link AmqpMessage#resourceType()} and {@link AmqpMessage#resourceId()}
+     */
+    RESOURCE,
     ERROR
 }
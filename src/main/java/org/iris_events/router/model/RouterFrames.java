@@ -0,0 +1,57 @@
+package org.iris_events.router.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.iris_events.router.events.ErrorEvent;
+import org.iris_events.router.events.HeartBeatEvent;
+import org.iris_events.router.events.RouterEvent;
+import org.iris_events.router.events.UserAuthenticatedEvent;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Frames of router events that never change, encoded once at startup. Events are records, so a frame is found for
+ * any event equal to a cached one.
+ */
+public final class RouterFrames {
+
+    private static final HeartBeatEvent HEARTBEAT = new HeartBeatEvent();
+    private static final List<RouterEvent> EVENTS = List.of(HEARTBEAT, new UserAuthenticatedEvent(),
+            ErrorEvent.TOKEN_EXPIRED, ErrorEvent.EVENT_MISSING, ErrorEvent.PAYLOAD_MISSING,
+            ErrorEvent.AUTHORIZATION_FAILED);
+
+    private final Map<RouterEvent, PreEncodedFrame> frames;
+    private final RawMessage heartbeat;
+
+    public RouterFrames(final ObjectMapper objectMapper) {
+        this.frames = EVENTS.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                event -> new PreEncodedFrame(event.getName(), encode(objectMapper, event))));
+        this.heartbeat = frames.get(HEARTBEAT).withClientTraceId(null);
+    }
+
+    /**
+     * @return pre-encoded frame of the event, null when event is not cached
+     */
+    public PreEncodedFrame get(final RouterEvent event) {
+        return frames.get(event);
+    }
+
+    public RawMessage heartbeat() {
+        return heartbeat;
+    }
+
+    private static Buffer encode(final ObjectMapper objectMapper, final RouterEvent event) {
+        try {
+            return Buffer.buffer(objectMapper.writeValueAsBytes(event));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
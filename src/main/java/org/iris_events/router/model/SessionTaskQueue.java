@@ -0,0 +1,59 @@
+package org.iris_events.router.model;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs tasks of a session one at a time, in submission order, on threads of the given executor. No thread is held
+ * while the queue is empty. Once closed, tasks still queued are skipped.
+ */
+public final class SessionTaskQueue {
+    private static final Logger log = LoggerFactory.getLogger(SessionTaskQueue.class);
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private volatile boolean closed;
+
+    public void submit(final Runnable task, final Executor executor) {
+        if (closed) {
+            return;
+        }
+        tasks.add(task);
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * @return true when all submitted tasks have completed
+     */
+    public boolean isIdle() {
+        return pending.get() == 0;
+    }
+
+    /**
+     * Skips tasks that have not started yet, called when the socket is closed.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    private void drain() {
+        do {
+            final var task = tasks.poll();
+            if (closed) {
+                continue;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Session task failed", e);
+            }
+        } while (pending.decrementAndGet() > 0);
+    }
+}
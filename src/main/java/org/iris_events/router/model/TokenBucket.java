@@ -0,0 +1,63 @@
+package org.iris_events.router.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket, implemented as generic cell rate algorithm. Whole bucket state is a single theoretical
+ * arrival time, so acquiring a token is one CAS and does not allocate.
+ */
+public final class TokenBucket {
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param capacity number of tokens available in a burst
+     * @param tokensPerSecond refill rate
+     */
+    public TokenBucket(final int capacity, final int tokensPerSecond) {
+        this(capacity, tokensPerSecond, System.nanoTime());
+    }
+
+    TokenBucket(final int capacity, final int tokensPerSecond, final long now) {
+        if (capacity <= 0 || tokensPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and tokensPerSecond must be positive");
+        }
+        this.emissionInterval = TimeUnit.SECONDS.toNanos(1) / tokensPerSecond;
+        this.burstTolerance = emissionInterval * capacity;
+        this.theoreticalArrivalTime = new AtomicLong(now);
+    }
+
+    public boolean tryAcquire() {
+        return tryAcquire(System.nanoTime());
+    }
+
+    public boolean tryAcquire(final long now) {
+        while (true) {
+            final var tat = theoreticalArrivalTime.get();
+            final var next = (tat - now < 0 ? now : tat) + emissionInterval;
+            if (next - now > burstTolerance) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns token acquired with {@link #tryAcquire()}.
+     */
+    public void release() {
+        theoreticalArrivalTime.addAndGet(-emissionInterval);
+    }
+
+    /**
+     * @return true when bucket is full, i.e. no tokens were taken recently
+     */
+    public boolean isIdle(final long now) {
+        return theoreticalArrivalTime.get() - now <= 0;
+    }
+}
@@ -18,9 +18,11 @@ import static org.iris_events.router.ws.SocketV1.IRIS_SESSION_ID_HEADER;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -29,23 +31,24 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.netty.util.Timeout;
 import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.core.impl.ContextInternal;
 import org.eclipse.microprofile.jwt.JsonWebToken;
-import org.iris_events.common.MDCProperties;
 import org.iris_events.router.events.ErrorEvent;
 import org.iris_events.router.events.RouterEvent;
 import org.iris_events.router.service.RouterIdProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.AMQP;
 
-import org.iris_events.common.ErrorType;
 import org.iris_events.common.message.ErrorMessage;
-import io.vertx.core.buffer.Buffer;
 import jakarta.websocket.CloseReason;
 import jakarta.websocket.Session;
 import org.slf4j.MDC;
@@ -56,6 +59,7 @@ import org.slf4j.MDC;
 @RegisterForReflection
 public class UserSession {
     private static final Logger log = LoggerFactory.getLogger(UserSession.class);
+    private static final ByteBuffer PONG_DATA = ByteBuffer.wrap("Hello".getBytes(StandardCharsets.UTF_8));
 
     private final String anonymousUserId;
     private String clientVersion = null;
@@ -88,25 +92,40 @@ public class UserSession {
     private Set<String> roles = Set.of();
     private final Session session;
     private JsonWebToken token;
-    private Instant tokenExpiry;
+    private volatile Instant tokenExpiry;
+    private volatile boolean valid = true;
+    private volatile boolean tokenExpiryNotified;
+    private Timeout tokenExpiryTimeout;
     private Map<String, Object> defaultMessageHeaders;
+    private volatile Map<String, Object> backendHeaders;
     private String clientIp;
     private String clientDeviceId = null;
     private boolean sendHeartbeat = false;
     private String userAgent;
-
-    public UserSession(ObjectMapper objectMapper, Session session, Map<String, List<String>> headers) {
+    private final RateLimitBuckets rateLimitBuckets = new RateLimitBuckets();
+    private final SessionTaskQueue taskQueue = new SessionTaskQueue();
+    private final OutboundQueue outboundQueue;
+    private final IdGenerator correlationIds;
+    private final RouterFrames routerFrames;
+    private final Context ioContext;
+    private final Set<String> resourceSubscriptions = ConcurrentHashMap.newKeySet();
+
+    public UserSession(ObjectMapper objectMapper, Session session, Map<String, List<String>> headers,
+            OutboundQueue outboundQueue, IdGenerator correlationIds, RouterFrames routerFrames) {
         this.objectMapper = objectMapper;
+        this.routerFrames = routerFrames;
+        final var context = Vertx.currentContext();
+        this.ioContext = context != null ? ((ContextInternal) context).unwrap() : null;
         this.session = Objects.requireNonNull(session);
+        this.outboundQueue = outboundQueue;
+        this.correlationIds = correlationIds;
         this.socketId = (String) session.getUserProperties().get(IRIS_SESSION_ID_HEADER);
         this.anonymousUserId = generateAnonymousUserId(socketId);
         this.userId = anonymousUserId;
         this.anonymous = true;
         this.connectedAt = Instant.now();
         setupDefaultHeaders(socketId, headers);
-        setupMDC();
         log.info("Created new user session. userId: {}", userId);
-        clearMDC();
     }
 
     public String getId() {
@@ -121,17 +140,31 @@ public class UserSession {
         return connectedAt;
     }
 
+    public RateLimitBuckets getRateLimitBuckets() {
+        return rateLimitBuckets;
+    }
+
+    /**
+     * @return event loop context of the connection, null when session was not opened on an event loop
+     */
+    public Context getIoContext() {
+        return ioContext;
+    }
+
+    /**
+     * @return keys of resources this session is subscribed to, maintained by the registry resource index
+     */
+    public Set<String> getResourceSubscriptions() {
+        return resourceSubscriptions;
+    }
+
+    public SessionTaskQueue getTaskQueue() {
+        return taskQueue;
+    }
+
     // actions
     public void sendMessage(AmqpMessage message) {
-        final var clientTraceId = message.clientTraceId();
-        final var rawMessage = RawMessage.builder(objectMapper)
-                .setEventName(message.eventType())
-                .setClientTraceId(clientTraceId)
-                .setSubscriptionId(message.subscriptionId())
-                .setPayloadFromBuffer(message.body())
-                .build();
-
-        sendMessageRaw(rawMessage, clientTraceId);
+        sendMessageRaw(RawMessage.of(objectMapper, message), message.clientTraceId());
     }
 
     public void sendErrorMessage(ErrorMessage errorMessage, String clientTraceId) {
@@ -144,6 +177,10 @@ public class UserSession {
         sendMessageRaw(rawMessage, clientTraceId);
     }
 
+    public void sendHeartbeat() {
+        sendMessageRaw(routerFrames.heartbeat(), null);
+    }
+
     public void sendMessageRaw(final RawMessage rawMessage, final String clientTraceId) {
         final var stringMessage = rawMessage.getMessage();
         if (log.isTraceEnabled()) {
@@ -163,21 +200,65 @@ public class UserSession {
             }*/
             return;
         }
-        writeMessageDirect(stringMessage);
+        outboundQueue.send(rawMessage);
+    }
 
+    private void writeMessageDirect(RawMessage rawMessage) {
+        outboundQueue.send(rawMessage);
     }
 
-    private void writeMessageDirect(String msg) {
-        session.getAsyncRemote().sendText(msg);
+    /**
+     * Anonymous sessions are always valid, authenticated ones until their token expires. Expiry is tracked by
+     * {@link org.iris_events.router.service.TokenExpiryScheduler}.
+     */
+    public boolean isValid() {
+        return valid;
+    }
 
+    public Instant getTokenExpiry() {
+        return tokenExpiry;
     }
 
-    public boolean isValid() {
-        if (anonymous) {
+    /**
+     * Invalidates session once its token has expired and lets the client know, once per token. Also notifies when
+     * token had already expired on login.
+     *
+     * @return false when token has not expired yet, e.g. it was refreshed, and expiry has to be checked again
+     */
+    public boolean expireToken() {
+        final var expiry = tokenExpiry;
+        if (anonymous || tokenExpiryNotified || expiry == null) {
             return true;
         }
+        if (expiry.isAfter(Instant.now())) {
+            return false;
+        }
+        valid = false;
+        tokenExpiryNotified = true;
+        log.info("Token has expired, token expiry: {}", expiry);
+        sendSessionInvalidError(null);
+        return true;
+    }
+
+    /**
+     * Replaces pending token expiry timeout, cancelling the previous one.
+     */
+    public synchronized void setTokenExpiryTimeout(final Timeout timeout) {
+        if (tokenExpiryTimeout != null) {
+            tokenExpiryTimeout.cancel();
+        }
+        tokenExpiryTimeout = timeout;
+    }
 
-        return tokenExpiry.isAfter(Instant.now());
+    /**
+     * Replaces timeout that has fired with a new one, unless expiry was cancelled or rescheduled in the meantime.
+     */
+    public synchronized void replaceTokenExpiryTimeout(final Timeout fired, final Timeout timeout) {
+        if (tokenExpiryTimeout == fired) {
+            tokenExpiryTimeout = timeout;
+        } else {
+            timeout.cancel();
+        }
     }
 
     public void login(JsonWebToken token) {
@@ -188,6 +269,7 @@ public class UserSession {
         this.userId = token.getSubject();
         updateToken(token);
         anonymous = false;
+        buildBackendHeaders();
     }
 
     private void updateToken(JsonWebToken token) {
@@ -204,6 +286,8 @@ public class UserSession {
         this.roles = token.getGroups();
         this.tokenExpiry = Instant.ofEpochSecond(token.getExpirationTime())
                 .plus(30, ChronoUnit.SECONDS); //add 30 seconds grace period
+        this.valid = tokenExpiry.isAfter(Instant.now());
+        this.tokenExpiryNotified = false;
         log.info("token expiry: {}",tokenExpiry);
         if (Instant.now().getEpochSecond() > token.getExpirationTime()){
             log.warn("Token is already expired, token expiry: {}, issued at: {}", token.getExpirationTime(), token.getIssuedAtTime());
@@ -213,11 +297,19 @@ public class UserSession {
     public void updateDeviceId(String clientDeviceId) {
         log.info("setting device id: {}",clientDeviceId);
         this.clientDeviceId = clientDeviceId;
+        if (clientDeviceId != null) {
+            defaultMessageHeaders.put(DEVICE, clientDeviceId);
+        } else {
+            defaultMessageHeaders.remove(DEVICE);
+        }
+        buildBackendHeaders();
     }
 
     public String logOut() {
         anonymous = true;
+        valid = true;
         token = null;
+        buildBackendHeaders();
         return userId;
     }
 
@@ -229,6 +321,10 @@ public class UserSession {
         return clientDeviceId;
     }
 
+    public String getClientVersion() {
+        return clientVersion;
+    }
+
     public boolean isSendHeartbeat() {
         return sendHeartbeat;
     }
@@ -239,6 +335,7 @@ public class UserSession {
 
     public void close(final CloseReason reason) {
         log.trace("[{}] Closing websocket", socketId);
+        taskQueue.close();
         try {
             session.close(reason);
         } catch (IOException e) {
@@ -247,8 +344,11 @@ public class UserSession {
 
     }
 
-    public void setBackendMessageHeaders(Map<String, Object> headers) {
-        headers.putAll(defaultMessageHeaders);
+    /**
+     * Rebuilds headers shared by all backend messages of this session, on identity or device change.
+     */
+    private void buildBackendHeaders() {
+        final var headers = new LinkedHashMap<>(defaultMessageHeaders);
         if (anonymous) {
             headers.put(ANONYMOUS_ID, anonymousUserId);
             headers.put(USER_ID, anonymousUserId);
@@ -256,39 +356,37 @@ public class UserSession {
             headers.put(JWT, token.getRawToken());
             headers.put(USER_ID, userId);
         }
+        headers.put(REQUEST_VIA, "router/WebSocket");
+        this.backendHeaders = Collections.unmodifiableMap(headers);
     }
 
     public AmqpMessage createBackendRequest(RequestWrapper requestMessage) {
         var eventType = requestMessage.event();
-        var headers = new LinkedHashMap<String, Object>();
-        setBackendMessageHeaders(headers);
-        headers.put(EVENT_TYPE, eventType);
+        var payload = requestMessage.payloadAsBuffer(objectMapper);
+        var headers = new LayeredHeaders(backendHeaders).with(EVENT_TYPE, eventType);
         if (requestMessage.clientTraceId() != null) {
-            headers.put(CLIENT_TRACE_ID, requestMessage.clientTraceId());
+            headers.with(CLIENT_TRACE_ID, requestMessage.clientTraceId());
         }
-        headers.put(REQUEST_VIA, "router/WebSocket");
         if (log.isTraceEnabled()) {
-            var copy = new HashMap<>(headers);
-            setupMDC();
-            MDC.put(MDCProperties.USER_ID, userId);
-            MDC.put("payload",  requestMessage.payload().toString());
-            MDC.put("headers",  copy.toString());
+            MDC.put("payload",  payload.toString(StandardCharsets.UTF_8));
+            MDC.put("headers",  headers.toString());
             log.trace("[{}] sending to backend",eventType);
-            clearMDC();
+            MDC.remove("payload");
+            MDC.remove("headers");
         }
 
         final AMQP.BasicProperties messageProperties = new AMQP.BasicProperties()
                 .builder()
-                .correlationId(UUID.randomUUID().toString())
+                .correlationId(correlationIds.next())
                 .timestamp(new Date())
                 .headers(headers)
                 .build();
-        return new AmqpMessage(writeValueAsBytes(requestMessage.payload()), messageProperties, eventType);
+        return new AmqpMessage(payload, messageProperties, eventType);
     }
 
     public void pong() {
         try {
-            session.getAsyncRemote().sendPong(ByteBuffer.wrap("Hello".getBytes()));
+            session.getAsyncRemote().sendPong(PONG_DATA.duplicate());
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -297,7 +395,7 @@ public class UserSession {
 
     public void ping() {
         try {
-            session.getAsyncRemote().sendPong(ByteBuffer.wrap("Hello".getBytes()));
+            session.getAsyncRemote().sendPong(PONG_DATA.duplicate());
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -305,18 +403,8 @@ public class UserSession {
 
     public void sendSessionInvalidError(final String clientTraceId) {
         log.info("sending session invalid error to client, token expired: {}", socketId);
-        final var errorEvent = getErrorEvent(
-                new ErrorMessage(ErrorType.UNAUTHORIZED, ErrorEvent.TOKEN_EXPIRED_CLIENT_CODE, "Token has expired."));
-        final var rawErrorMessage = getRawMessage(errorEvent, clientTraceId);
-        writeMessageDirect(rawErrorMessage.getMessage());
-    }
-
-    private Buffer writeValueAsBytes(Object value) throws RuntimeException {
-        try {
-            return Buffer.buffer(objectMapper.writeValueAsBytes(value));
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Could not serialize to json", e);
-        }
+        final var rawErrorMessage = getRawMessage(ErrorEvent.TOKEN_EXPIRED, clientTraceId);
+        writeMessageDirect(rawErrorMessage);
     }
 
     private void setupDefaultHeaders(String sessionId, Map<String, List<String>> headers) {
@@ -382,22 +470,13 @@ public class UserSession {
             defaultMessageHeaders.put(CLIENT_VERSION, clientVersion);
         }
         defaultMessageHeaders.put(ROUTER, RouterIdProvider.routerId());
+        buildBackendHeaders();
     }
-    public void setupMDC() {
-        if (clientVersion != null) {
-            MDC.put("clientVersion", clientVersion);
-        }
-        if (clientDeviceId != null) {
-            MDC.put("deviceId", clientDeviceId);
-        }
-    }
-
-    public static void clearMDC(){
-        MDC.remove("clientVersion");
-        MDC.remove(MDCProperties.USER_ID);
-    }
-
     private RawMessage getRawMessage(final RouterEvent event, final String clientTraceId) {
+        final var frame = routerFrames.get(event);
+        if (frame != null) {
+            return frame.withClientTraceId(clientTraceId);
+        }
         return RawMessage.builder(objectMapper)
                 .setEventName(event.getName())
                 .setClientTraceId(clientTraceId)
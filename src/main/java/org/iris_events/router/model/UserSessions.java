@@ -0,0 +1,93 @@
+package org.iris_events.router.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable sessions of one user. Users mostly have one to three sessions, so sessions are kept in an exactly sized
+ * array, adding or removing a session creates a new holder. Holders are swapped atomically in the user index.
+ */
+public final class UserSessions implements Iterable<UserSession> {
+
+    private final UserSession[] sessions;
+
+    private UserSessions(final UserSession[] sessions) {
+        this.sessions = sessions;
+    }
+
+    public static UserSessions of(final UserSession userSession) {
+        return new UserSessions(new UserSession[] { userSession });
+    }
+
+    /**
+     * @return holder with given session added, this holder when session is already present
+     */
+    public UserSessions with(final UserSession userSession) {
+        if (indexOf(userSession) >= 0) {
+            return this;
+        }
+        final var added = Arrays.copyOf(sessions, sessions.length + 1);
+        added[sessions.length] = userSession;
+        return new UserSessions(added);
+    }
+
+    /**
+     * @return holder without given session, null when no sessions remain
+     */
+    public UserSessions without(final UserSession userSession) {
+        final var index = indexOf(userSession);
+        if (index < 0) {
+            return this;
+        }
+        if (sessions.length == 1) {
+            return null;
+        }
+        final var removed = new UserSession[sessions.length - 1];
+        System.arraycopy(sessions, 0, removed, 0, index);
+        System.arraycopy(sessions, index + 1, removed, index, removed.length - index);
+        return new UserSessions(removed);
+    }
+
+    public int size() {
+        return sessions.length;
+    }
+
+    public boolean isEmpty() {
+        return sessions.length == 0;
+    }
+
+    @Override
+    public Iterator<UserSession> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < sessions.length;
+            }
+
+            @Override
+            public UserSession next() {
+                if (index >= sessions.length) {
+                    throw new NoSuchElementException();
+                }
+                return sessions[index++];
+            }
+        };
+    }
+
+    private int indexOf(final UserSession userSession) {
+        for (int i = 0; i < sessions.length; i++) {
+            if (sessions[i] == userSession) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(sessions);
+    }
+}
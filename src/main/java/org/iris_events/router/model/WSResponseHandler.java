@@ -1,5 +1,6 @@
 package org.iris_events.router.model;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -18,11 +19,14 @@ public class WSResponseHandler extends DefaultResponseHandler {
     private final WebsocketRegistry websocketRegistry;
     protected final ObjectMapper objectMapper;
     private final List<String> nonRpcEvents;
+    private final Set<String> conflateEvents;
 
-    public WSResponseHandler(WebsocketRegistry websocketRegistry, ObjectMapper objectMapper, List<String> nonRpcEvents) {
+    public WSResponseHandler(WebsocketRegistry websocketRegistry, ObjectMapper objectMapper, List<String> nonRpcEvents,
+            Set<String> conflateEvents) {
         this.websocketRegistry = websocketRegistry;
         this.objectMapper = objectMapper;
         this.nonRpcEvents = nonRpcEvents;
+        this.conflateEvents = conflateEvents;
     }
 
     @Override
@@ -38,6 +42,10 @@ public class WSResponseHandler extends DefaultResponseHandler {
             sendToSession(message);
         } else if (responseMessageType == ResponseMessageType.BROADCAST) {
             sendBroadcastMessage(message);
+        } else if (responseMessageType == ResponseMessageType.TARGETED) {
+            sendTargetedMessage(message);
+        } else if (responseMessageType == ResponseMessageType.RESOURCE) {
+            sendResourceMessage(message);
         } else {
             throw new RuntimeException("Don't know how to handle: " + responseMessageType);
         }
@@ -64,28 +72,85 @@ public class WSResponseHandler extends DefaultResponseHandler {
             }
             return;
         }
-        session.sendMessage(message);
+        final var rawMessage = RawMessage.of(objectMapper, message);
+        final var clientTraceId = message.clientTraceId();
+        websocketRegistry.send(session, target -> target.sendMessageRaw(rawMessage, clientTraceId));
     }
 
     private void sendUserMessage(AmqpMessage message) {
         String userId = message.userId();
         log.trace("sending message to user: {}", userId);
-        Set<? extends UserSession> allSocketOfTheUser = websocketRegistry.getAllUserSessions(userId);
+        UserSessions allSocketOfTheUser = websocketRegistry.getAllUserSessions(userId);
         if (allSocketOfTheUser == null || allSocketOfTheUser.isEmpty()) {
             if (LOGGER.isTraceEnabled()) {
                 LOGGER.warn("No sockets found to send RPC message. message: {}", BackendRequest.sanitizeBody(message.body()));
             }
             return;
         }
+        final var rawMessage = encode(message);
+        final var clientTraceId = message.clientTraceId();
         for (UserSession session : allSocketOfTheUser) {
-            session.sendMessage(message);
+            websocketRegistry.send(session, target -> target.sendMessageRaw(rawMessage, clientTraceId));
         }
     }
 
     private void sendBroadcastMessage(AmqpMessage message) {
-        for (UserSession userSession : websocketRegistry.getAllSessions()) {
-            userSession.sendMessage(message);
+        // encoded once, the same frame is written to every session
+        final var rawMessage = encode(message);
+        final var clientTraceId = message.clientTraceId();
+        websocketRegistry.broadcast(userSession -> userSession.sendMessageRaw(rawMessage, clientTraceId));
+    }
+
+    /**
+     * Sends to sessions of the device when message has device id, otherwise to sessions of the client version.
+     */
+    private void sendTargetedMessage(AmqpMessage message) {
+        final var deviceId = message.deviceId();
+        final Collection<UserSession> sessions;
+        if (deviceId != null) {
+            sessions = websocketRegistry.getDeviceSessions(deviceId);
+        } else {
+            sessions = websocketRegistry.getClientVersionSessions(message.clientVersion());
+        }
+        if (sessions.isEmpty()) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("No sockets found for targeted message. device: {}, client version: {}", deviceId,
+                        message.clientVersion());
+            }
+            return;
+        }
+        final var rawMessage = encode(message);
+        final var clientTraceId = message.clientTraceId();
+        for (UserSession session : sessions) {
+            websocketRegistry.send(session, target -> target.sendMessageRaw(rawMessage, clientTraceId));
+        }
+    }
+
+    /**
+     * Backend publishes once per resource, message is encoded once and written to every subscribed session.
+     */
+    private void sendResourceMessage(AmqpMessage message) {
+        final var sessions = websocketRegistry.getResourceSessions(message.resourceType(), message.resourceId());
+        if (sessions.isEmpty()) {
+            if (LOGGER.isTraceEnabled()) {
+                LOGGER.trace("No sockets subscribed to resource. type: {}, id: {}", message.resourceType(),
+                        message.resourceId());
+            }
+            return;
+        }
+        final var rawMessage = encode(message);
+        final var clientTraceId = message.clientTraceId();
+        for (UserSession session : sessions) {
+            websocketRegistry.send(session, target -> target.sendMessageRaw(rawMessage, clientTraceId));
+        }
+    }
+
+    private RawMessage encode(final AmqpMessage message) {
+        final var rawMessage = RawMessage.of(objectMapper, message);
+        if (conflateEvents.contains(message.eventType())) {
+            return rawMessage.conflatable(message.eventType(), message.subscriptionId());
         }
+        return rawMessage;
     }
 
 }
@@ -0,0 +1,12 @@
+package org.iris_events.router.model.sub;
+
+import java.util.List;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.iris_events.annotations.Message;
+import org.iris_events.annotations.Scope;
+
+@Message(name = "unsubscribe", scope = Scope.FRONTEND)
+@RegisterForReflection
+public record Unsubscribe(List<Resource> resources) {
+}
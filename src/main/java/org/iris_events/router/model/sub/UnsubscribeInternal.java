@@ -0,0 +1,12 @@
+package org.iris_events.router.model.sub;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import org.iris_events.annotations.Message;
+
+@RegisterForReflection
+@Message(name = "unsubscribe-internal")
+public record UnsubscribeInternal(@JsonProperty("resource_type") String resourceType,
+                                  @JsonProperty("resource_id") String resourceId) {
+}
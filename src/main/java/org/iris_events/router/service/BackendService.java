@@ -1,5 +1,6 @@
 package org.iris_events.router.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -14,9 +15,13 @@ import org.iris_events.router.model.RequestWrapper;
 import org.iris_events.router.model.UserSession;
 import org.iris_events.router.model.sub.SessionClosed;
 import org.iris_events.router.model.sub.SubscribeInternal;
+import org.iris_events.router.model.sub.UnsubscribeInternal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @author Tomaz Cerar
  */
@@ -39,6 +44,10 @@ public class BackendService {
     @Channel("subscribe-internal")
     Emitter<Buffer> subscribeInternalPublisher;
 
+    @Inject
+    @Channel("unsubscribe-internal")
+    Emitter<Buffer> unsubscribeInternalPublisher;
+
     @Inject
     @Channel("identity/authenticated")
     Emitter<Buffer> identityAuthenticatedInternalPublisher;
@@ -67,6 +76,15 @@ public class BackendService {
         sendToFrontendQueue(message);
     }
 
+    public void sendFrontendEvents(UserSession userSession, List<RequestWrapper> requestWrappers) {
+        final var messages = new ArrayList<AmqpMessage>(requestWrappers.size());
+        for (RequestWrapper requestWrapper : requestWrappers) {
+            messages.add(userSession.createBackendRequest(requestWrapper));
+        }
+        websocketRegistry.registerRequests(messages);
+        messages.forEach(this::sendToFrontendQueue);
+    }
+
     public void sendInternalEventToBackend(AmqpMessage message, Emitter<Buffer> emitter) {
         websocketRegistry.registerRequest(message);
         var meta = message.toMetadata()
@@ -78,11 +96,19 @@ public class BackendService {
     private void sendInternalEvent(final UserSession userSession, final String clientTraceId, final Object message, Emitter<Buffer> emitter) {
         final var messageAnnotation = message.getClass().getAnnotation(Message.class);
         final var name = messageAnnotation.name();
-        final var msg = new RequestWrapper(name, clientTraceId, objectMapper.valueToTree(message));
+        final var msg = RequestWrapper.raw(name, clientTraceId, writeValueAsBuffer(message));
         final var amqpMessage = userSession.createBackendRequest(msg);
         sendInternalEventToBackend(amqpMessage, emitter);
     }
 
+    private Buffer writeValueAsBuffer(final Object value) {
+        try {
+            return Buffer.buffer(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize to json", e);
+        }
+    }
+
     public void sendInternalEvent(final UserSession userSession, final String clientTraceId, final SessionClosed message) {
         sendInternalEvent(userSession, clientTraceId, message, sessionClosedPublisher);
     }
@@ -94,4 +120,8 @@ public class BackendService {
     public void sendInternalEvent(final UserSession userSession, final String clientTraceId, final SubscribeInternal message) {
         sendInternalEvent(userSession, clientTraceId, message, subscribeInternalPublisher);
     }
+
+    public void sendInternalEvent(final UserSession userSession, final String clientTraceId, final UnsubscribeInternal message) {
+        sendInternalEvent(userSession, clientTraceId, message, unsubscribeInternalPublisher);
+    }
 }
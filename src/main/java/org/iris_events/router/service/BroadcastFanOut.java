@@ -0,0 +1,144 @@
+package org.iris_events.router.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import org.iris_events.router.model.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.vertx.core.Context;
+
+/**
+ * Groups sessions by the I/O context that owns their connection. A broadcast is split into one work unit per
+ * context, each unit runs on its context's event loop and writes to owned sessions only, in batches of
+ * {@code batchSize} sessions so other I/O of the event loop is not held back.
+ * <p>
+ * Broadcasts and writes to a single session share one queue per context which is drained in submission order, so a
+ * session receives messages in the order they were submitted, also when a broadcast spans several batches. Sessions
+ * without an I/O context are written to on the calling thread for both.
+ * <p>
+ * Sessions are keyed by socket id, which unlike {@link UserSession#equals(Object)} does not change on login.
+ */
+final class BroadcastFanOut {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BroadcastFanOut.class);
+
+    private final ConcurrentHashMap<Context, Lane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, UserSession> unowned = new ConcurrentHashMap<>();
+    private final int batchSize;
+
+    BroadcastFanOut(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    void add(final UserSession userSession) {
+        final var context = userSession.getIoContext();
+        if (context == null) {
+            unowned.put(userSession.getId(), userSession);
+        } else {
+            lane(context).sessions.put(userSession.getId(), userSession);
+        }
+    }
+
+    void remove(final UserSession userSession) {
+        final var context = userSession.getIoContext();
+        if (context == null) {
+            unowned.remove(userSession.getId());
+        } else {
+            final var lane = lanes.get(context);
+            if (lane != null) {
+                lane.sessions.remove(userSession.getId());
+            }
+        }
+    }
+
+    /**
+     * Enqueues action for all sessions and returns, sessions without an I/O context are handled on calling thread.
+     */
+    void dispatch(final Consumer<UserSession> action) {
+        lanes.values().forEach(lane -> {
+            if (!lane.sessions.isEmpty()) {
+                lane.submit(lane.sessions.values().iterator(), action);
+            }
+        });
+        unowned.values().forEach(action);
+    }
+
+    /**
+     * Enqueues action for one session behind broadcasts already dispatched to it, runs it on calling thread when
+     * session has no I/O context.
+     */
+    void send(final UserSession userSession, final Consumer<UserSession> action) {
+        final var context = userSession.getIoContext();
+        if (context == null) {
+            action.accept(userSession);
+        } else {
+            lane(context).submit(List.of(userSession).iterator(), action);
+        }
+    }
+
+    private Lane lane(final Context context) {
+        return lanes.computeIfAbsent(context, Lane::new);
+    }
+
+    private record Delivery(Iterator<UserSession> sessions, Consumer<UserSession> action) {
+    }
+
+    private final class Lane {
+        private final Context context;
+        private final ConcurrentHashMap<String, UserSession> sessions = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<Delivery> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Lane(final Context context) {
+            this.context = context;
+        }
+
+        private void submit(final Iterator<UserSession> targets, final Consumer<UserSession> action) {
+            pending.add(new Delivery(targets, action));
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                context.runOnContext(v -> drain());
+            }
+        }
+
+        /**
+         * Writes to at most {@code batchSize} sessions, a delivery that is not done stays at the head of the queue.
+         */
+        private void drain() {
+            try {
+                int budget = batchSize;
+                Delivery delivery;
+                while (budget > 0 && (delivery = pending.peek()) != null) {
+                    while (budget > 0 && delivery.sessions().hasNext()) {
+                        run(delivery.action(), delivery.sessions().next());
+                        budget--;
+                    }
+                    if (!delivery.sessions().hasNext()) {
+                        pending.poll();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!pending.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void run(final Consumer<UserSession> action, final UserSession userSession) {
+            try {
+                action.accept(userSession);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not write to session {}", userSession.getId(), e);
+            }
+        }
+    }
+}
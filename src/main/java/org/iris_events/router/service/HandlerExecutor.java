@@ -0,0 +1,61 @@
+package org.iris_events.router.service;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.logging.LogContext;
+import org.iris_events.router.model.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Runs message handlers according to {@link RouterConfig#handlerExecution()}. With virtual threads, blocking handlers
+ * are moved off the websocket I/O thread. Once a session has work queued, all its following messages are queued
+ * behind it, so requests of a session are always handled in order.
+ * <p>
+ * Handlers that run inline fail to the caller. Failures of queued handlers are passed to {@code onFailure}, so the
+ * client gets the same reply either way.
+ */
+@ApplicationScoped
+public class HandlerExecutor {
+    private static final Logger log = LoggerFactory.getLogger(HandlerExecutor.class);
+
+    private final ExecutorService executor;
+
+    public HandlerExecutor(RouterConfig config) {
+        if (config.handlerExecution() == RouterConfig.HandlerExecution.VIRTUAL_THREAD) {
+            this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("message-handler-", 0).factory());
+            log.info("Blocking message handlers run on virtual threads");
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public void execute(final UserSession userSession, final boolean blocking, final Runnable task,
+            final Consumer<RuntimeException> onFailure) {
+        final var taskQueue = userSession.getTaskQueue();
+        if (executor == null || (!blocking && taskQueue.isIdle())) {
+            task.run();
+            return;
+        }
+        taskQueue.submit(LogContext.current().propagate(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                onFailure.accept(e);
+            }
+        }), executor);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.iris_events.router.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.model.RateLimitBuckets;
+import org.iris_events.router.model.TokenBucket;
+import org.iris_events.router.model.UserSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Limits rate of client messages per session and per user. Session buckets are kept on {@link UserSession},
+ * user buckets are kept here and dropped once they refill.
+ */
+@ApplicationScoped
+public class RateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(RateLimiter.class);
+
+    private final boolean enabled;
+    private final Map<String, RouterConfig.EventRateLimit> eventLimits;
+    private final Function<String, TokenBucket> sessionBucketFactory;
+    private final Function<String, TokenBucket> userBucketFactory;
+    private final ConcurrentHashMap<String, RateLimitBuckets> userBuckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(RouterConfig config) {
+        final var rateLimit = config.rateLimit();
+        this.enabled = rateLimit.enabled();
+        this.eventLimits = Map.copyOf(rateLimit.events());
+        this.sessionBucketFactory = key -> createBucket(key, rateLimit.session(), RouterConfig.EventRateLimit::session);
+        this.userBucketFactory = key -> createBucket(key, rateLimit.user(), RouterConfig.EventRateLimit::user);
+        if (enabled) {
+            log.info("Rate limiting enabled, events with own limits: {}", eventLimits.keySet());
+        }
+    }
+
+    /**
+     * @return true when message of given event type may be published for this session
+     */
+    public boolean tryAcquire(final UserSession userSession, final String eventType) {
+        if (!enabled) {
+            return true;
+        }
+        final var key = eventLimits.containsKey(eventType) ? eventType : RateLimitBuckets.DEFAULT_KEY;
+        final var sessionBucket = userSession.getRateLimitBuckets().get(key, sessionBucketFactory);
+        if (!sessionBucket.tryAcquire()) {
+            return false;
+        }
+        var buckets = userBuckets.get(userSession.getUserId());
+        if (buckets == null) {
+            buckets = userBuckets.computeIfAbsent(userSession.getUserId(), userId -> new RateLimitBuckets());
+        }
+        if (!buckets.get(key, userBucketFactory).tryAcquire()) {
+            sessionBucket.release();
+            return false;
+        }
+        return true;
+    }
+
+    @Scheduled(every = "60s", delay = 60)
+    void removeIdleUserBuckets() {
+        final var now = System.nanoTime();
+        userBuckets.values().removeIf(buckets -> buckets.isIdle(now));
+    }
+
+    private TokenBucket createBucket(final String key, final RouterConfig.Bucket defaultBucket,
+            final Function<RouterConfig.EventRateLimit, Optional<RouterConfig.Bucket>> eventBucket) {
+        final var bucket = RateLimitBuckets.DEFAULT_KEY.equals(key)
+                ? defaultBucket
+                : eventBucket.apply(eventLimits.get(key)).orElse(defaultBucket);
+        return new TokenBucket(bucket.capacity(), bucket.perSecond());
+    }
+}
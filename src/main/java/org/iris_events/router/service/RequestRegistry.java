@@ -6,9 +6,9 @@ import static org.iris_events.common.MessagingHeaders.Message.REQUEST_REFERER;
 import static org.iris_events.common.MessagingHeaders.Message.REQUEST_VIA;
 import static org.iris_events.common.MessagingHeaders.Message.USER_AGENT;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -53,16 +53,27 @@ public class RequestRegistry {
 
     public boolean isRequestValid(String correlationId, String userId) {
         if(correlationId != null && userId != null) {
-            return requests.containsKey(buildRequestId(correlationId, userId));
+            return getRequest(correlationId, userId) != null;
         }
         return false;
     }
 
+    /**
+     * Requests are keyed by router generated correlation id alone, response must still be for the same user as
+     * userId could potentially change (send to another user).
+     */
+    private BackendRequest getRequest(String correlationId, String userId) {
+        final var request = requests.get(correlationId);
+        if (request != null && userId != null && userId.equals(request.userId())) {
+            return request;
+        }
+        return null;
+    }
+
     public void publishResponse(ResponseMessageType messageType, AmqpMessage message) {
         final String correlationId = message.correlationId();
         final String userId = message.userId();
-        final String requestId = buildRequestId(correlationId, userId);
-        BackendRequest request = requests.get(requestId);
+        BackendRequest request = correlationId != null ? getRequest(correlationId, userId) : null;
         if (request != null) {
             ResponseHandler handler = request.responseHandler();
 
@@ -75,7 +86,7 @@ public class RequestRegistry {
             if (requestLogger.isTraceEnabled()) {
                 requestLogger.info("Request handled successfully - removing request.");
             }
-            requests.remove(requestId);
+            requests.remove(correlationId, request);
         } else {
             requestErrorLogger.warn("Could not properly handle message, request/correlation id no longer active.");
         }
@@ -131,6 +142,17 @@ public class RequestRegistry {
     }
 
     public void registerNewRequest(AmqpMessage message, ResponseHandler responseHandler) {
+        registerNewRequest(createBackendRequest(message, responseHandler, Instant.now()));
+    }
+
+    public void registerNewRequests(List<AmqpMessage> messages, ResponseHandler responseHandler) {
+        final var created = Instant.now();
+        for (AmqpMessage message : messages) {
+            registerNewRequest(createBackendRequest(message, responseHandler, created));
+        }
+    }
+
+    private BackendRequest createBackendRequest(AmqpMessage message, ResponseHandler responseHandler, Instant created) {
         Map<String, Object> properties = message.properties().getHeaders();
         String eventType = message.eventType();
         String ipAddress = (String) properties.get(IP_ADDRESS);
@@ -140,17 +162,9 @@ public class RequestRegistry {
         String device = (String) properties.get(DEVICE);
         String userId = message.userId();
         String sessionId = message.sessionId();
-        String request = message.body().copy().toString(StandardCharsets.UTF_8);
-        String requestId = buildRequestId(message.correlationId(), message.userId());
-        registerNewRequest(
-                new BackendRequest(requestId, eventType, Instant.now(), request, ipAddress, userAgent,
-                        referer, requestVia, device, userId, sessionId, responseHandler));
-
-    }
-
-    private static String buildRequestId(String correlationId, String userId) {
-        // requestId must contain both correlationId and userId as userId could potentially change (send to another user)
-        return correlationId + "-" + userId;
+        String request = BackendRequest.bodyPreview(message.body());
+        return new BackendRequest(message.correlationId(), eventType, created, request, ipAddress, userAgent,
+                referer, requestVia, device, userId, sessionId, responseHandler);
     }
 
 }
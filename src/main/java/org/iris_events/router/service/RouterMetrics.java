@@ -0,0 +1,57 @@
+package org.iris_events.router.service;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.iris_events.router.config.RouterConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class RouterMetrics {
+
+    public enum RejectReason {
+        FRAME_TOO_LARGE,
+        PAYLOAD_TOO_LARGE,
+        BATCH_TOO_LARGE,
+        THROTTLED,
+        VALIDATION_FAILED
+    }
+
+    private final Map<RejectReason, Counter> rejectedMessages = new EnumMap<>(RejectReason.class);
+    private final Map<RouterConfig.OverflowPolicy, Counter> outboundOverflows = new EnumMap<>(RouterConfig.OverflowPolicy.class);
+    private final Counter outboundConflated;
+
+    public RouterMetrics(MeterRegistry registry) {
+        for (RejectReason reason : RejectReason.values()) {
+            rejectedMessages.put(reason, Counter.builder("iris.router.client.messages.rejected")
+                    .description("Client messages rejected by router before publishing to backend")
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        for (RouterConfig.OverflowPolicy policy : RouterConfig.OverflowPolicy.values()) {
+            outboundOverflows.put(policy, Counter.builder("iris.router.outbound.overflows")
+                    .description("Frames that did not fit in session outbound queue, by applied policy")
+                    .tag("policy", policy.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        outboundConflated = Counter.builder("iris.router.outbound.conflated")
+                .description("Pending frames replaced by a newer frame of the same subscription")
+                .register(registry);
+    }
+
+    public void messageRejected(final RejectReason reason) {
+        rejectedMessages.get(reason).increment();
+    }
+
+    public void outboundOverflow(final RouterConfig.OverflowPolicy policy) {
+        outboundOverflows.get(policy).increment();
+    }
+
+    public void outboundConflated() {
+        outboundConflated.increment();
+    }
+}
@@ -0,0 +1,54 @@
+package org.iris_events.router.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.iris_events.router.model.UserSession;
+
+/**
+ * Secondary index of sessions by a session attribute. Groups are added and removed inside {@code compute}, so a group
+ * is never dropped while a session is being added to it. Sessions in a group are keyed by socket id, which unlike
+ * {@link UserSession#equals(Object)} does not change on login.
+ */
+final class SessionIndex {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, UserSession>> sessions = new ConcurrentHashMap<>();
+
+    void add(final String key, final UserSession userSession) {
+        if (key == null) {
+            return;
+        }
+        sessions.compute(key, (k, indexed) -> {
+            final var group = indexed != null ? indexed : new ConcurrentHashMap<String, UserSession>();
+            group.put(userSession.getId(), userSession);
+            return group;
+        });
+    }
+
+    void remove(final String key, final UserSession userSession) {
+        if (key == null) {
+            return;
+        }
+        sessions.computeIfPresent(key, (k, indexed) -> {
+            indexed.remove(userSession.getId());
+            return indexed.isEmpty() ? null : indexed;
+        });
+    }
+
+    void move(final String oldKey, final String newKey, final UserSession userSession) {
+        if (oldKey != null && oldKey.equals(newKey)) {
+            return;
+        }
+        add(newKey, userSession);
+        remove(oldKey, userSession);
+    }
+
+    /**
+     * @return sessions with given key, empty when there are none
+     */
+    Collection<UserSession> get(final String key) {
+        final var indexed = key != null ? sessions.get(key) : null;
+        return indexed != null ? indexed.values() : List.of();
+    }
+}
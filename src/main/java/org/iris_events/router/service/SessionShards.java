@@ -0,0 +1,97 @@
+package org.iris_events.router.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.iris_events.router.model.UserSession;
+import org.iris_events.router.model.UserSessions;
+
+/**
+ * Sessions striped into shards by socket id, user index striped by user id. Every shard has its own maps and session
+ * counter. Bulk operations over many sessions visit shards in parallel, one task per shard.
+ */
+final class SessionShards {
+
+    static final class Shard {
+        final ConcurrentHashMap<String, UserSession> sockets = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<String, UserSessions> users = new ConcurrentHashMap<>();
+        final AtomicInteger size = new AtomicInteger();
+
+        void forEach(final Consumer<UserSession> action) {
+            sockets.values().forEach(action);
+        }
+    }
+
+    private final Shard[] shards;
+    private final int mask;
+    private final int parallelThreshold;
+    private final ExecutorService executor;
+
+    SessionShards(final int shardCount, final int parallelThreshold) {
+        final var size = shardCount <= 1 ? 1 : Integer.highestOneBit(shardCount - 1) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.mask = size - 1;
+        this.parallelThreshold = parallelThreshold;
+        this.executor = size > 1
+                ? Executors.newFixedThreadPool(size - 1, Thread.ofPlatform().daemon().name("registry-shard-", 0).factory())
+                : null;
+    }
+
+    Shard forSocket(final String socketId) {
+        return shards[index(socketId)];
+    }
+
+    Shard forUser(final String userId) {
+        return shards[index(userId)];
+    }
+
+    int shardCount() {
+        return shards.length;
+    }
+
+    int size() {
+        var size = 0;
+        for (Shard shard : shards) {
+            size += shard.size.get();
+        }
+        return size;
+    }
+
+    /**
+     * Runs action for every session, returns once all sessions were visited. The calling thread visits the first
+     * shard itself, other shards are visited in parallel when there are at least {@code parallelThreshold} sessions.
+     */
+    void forEach(final Consumer<UserSession> action) {
+        if (executor == null || size() < parallelThreshold) {
+            for (Shard shard : shards) {
+                shard.forEach(action);
+            }
+            return;
+        }
+        final var tasks = new CompletableFuture<?>[shards.length - 1];
+        for (int i = 1; i < shards.length; i++) {
+            final var shard = shards[i];
+            tasks[i - 1] = CompletableFuture.runAsync(() -> shard.forEach(action), executor);
+        }
+        shards[0].forEach(action);
+        CompletableFuture.allOf(tasks).join();
+    }
+
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private int index(final String key) {
+        final var hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,63 @@
+package org.iris_events.router.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.model.UserSession;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Tracks token expiries of all authenticated sessions on a hashed timing wheel and expires sessions when their token
+ * does, see {@link UserSession#expireToken()}. Expiry fires within one tick after the token expiry. When it fires
+ * before the current token expiry, e.g. after a token refresh, it is scheduled again.
+ */
+@ApplicationScoped
+public class TokenExpiryScheduler {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final int TICKS_PER_WHEEL = 512;
+
+    private final HashedWheelTimer timer = new HashedWheelTimer(new DefaultThreadFactory("token-expiry", true),
+            TICK_MILLIS, TimeUnit.MILLISECONDS, TICKS_PER_WHEEL);
+
+    public void schedule(final UserSession userSession) {
+        final var timeout = newTimeout(userSession);
+        if (timeout != null) {
+            userSession.setTokenExpiryTimeout(timeout);
+        }
+    }
+
+    private Timeout newTimeout(final UserSession userSession) {
+        final var tokenExpiry = userSession.getTokenExpiry();
+        if (tokenExpiry == null) {
+            return null;
+        }
+        final var delay = Math.max(0, Duration.between(Instant.now(), tokenExpiry).toMillis());
+        return timer.newTimeout(timeout -> expire(timeout, userSession), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void expire(final Timeout fired, final UserSession userSession) {
+        if (userSession.expireToken()) {
+            return;
+        }
+        final var timeout = newTimeout(userSession);
+        if (timeout != null) {
+            userSession.replaceTokenExpiryTimeout(fired, timeout);
+        }
+    }
+
+    public void cancel(final UserSession userSession) {
+        userSession.setTokenExpiryTimeout(null);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.stop();
+    }
+}
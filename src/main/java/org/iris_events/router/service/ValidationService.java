@@ -1,39 +1,136 @@
 package org.iris_events.router.service;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.iris_events.router.config.RouterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.networknt.schema.JsonSchema;
+import com.networknt.schema.JsonSchemaFactory;
+import com.networknt.schema.SpecVersion;
+import com.networknt.schema.ValidationMessage;
+
+import io.netty.buffer.ByteBufInputStream;
+import io.vertx.core.buffer.Buffer;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
-/*
- *  todo fetch json schema from schema registry and validate payloads against it
+/**
+ * Validates client payloads against json schemas. Schemas are compiled once at startup, one per event type, from
+ * {@code <schema-location>/<event type>.json}.
  */
 @ApplicationScoped
 public class ValidationService {
-   /* private static final Logger log = LoggerFactory.getLogger(ValidationService.class);
+    private static final Logger log = LoggerFactory.getLogger(ValidationService.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String SCHEMA_SUFFIX = ".json";
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.getInstance(SpecVersion.VersionFlag.V202012);
+
+    private final ObjectMapper objectMapper;
+    private final Map<String, JsonSchema> schemas;
 
     @Inject
-    ObjectMapper objectMapper;
+    public ValidationService(ObjectMapper objectMapper, RouterConfig config) {
+        this(objectMapper, loadSchemas(config.validation()));
+    }
 
-    private String schemaRegistryUrl = "";
-    private String artifactGroupId = "";
+    public ValidationService(ObjectMapper objectMapper, Map<String, JsonSchema> schemas) {
+        this.objectMapper = objectMapper;
+        this.schemas = Map.copyOf(schemas);
+    }
 
-    public void getSchemas() {
-        var client = RegistryClientFactory.create(schemaRegistryUrl);
-        var results = client.listArtifactsInGroup(artifactGroupId);
+    public boolean hasSchema(final String eventType) {
+        return schemas.containsKey(eventType);
+    }
 
-        results.getArtifacts()
-                .forEach(sa -> {
-                    log.info("fetching schema for {}", sa);
+    /**
+     * @return validation errors, empty when payload is valid or there is no schema for event type
+     */
+    public List<String> validate(final String eventType, final Buffer payload) {
+        final var schema = schemas.get(eventType);
+        if (schema == null) {
+            return List.of();
+        }
+        final Iterable<ValidationMessage> messages;
+        try (var stream = new ByteBufInputStream(payload.getByteBuf())) {
+            messages = schema.validate(objectMapper.readTree(stream));
+        } catch (IOException e) {
+            return List.of("payload is not valid json");
+        }
+        final var errors = new ArrayList<String>();
+        messages.forEach(message -> errors.add(message.getMessage()));
+        return errors;
+    }
 
-                    try (var stream = client.getLatestArtifact(sa.getGroupId(), sa.getId());) {
-                        JsonNode schema = objectMapper.readTree(stream);
+    private static Map<String, JsonSchema> loadSchemas(final RouterConfig.Validation config) {
+        if (!config.enabled()) {
+            return Map.of();
+        }
+        final var schemas = loadSchemas(config.schemaLocation(), config.events().orElse(List.of()));
+        log.info("Loaded json schemas for events: {}", schemas.keySet());
+        return schemas;
+    }
 
-                        log.info("content: {}", schema);
-                    } catch (IOException e) {
-                        throw new UncheckedIOException(e);
+    /**
+     * Loads schemas of given events. When location is a directory and events are empty, all schemas found in it are
+     * loaded. Classpath locations cannot be listed, events must be given.
+     */
+    public static Map<String, JsonSchema> loadSchemas(final String location, final List<String> events) {
+        final var schemas = new HashMap<String, JsonSchema>();
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            final var basePath = location.substring(CLASSPATH_PREFIX.length());
+            final var classLoader = Thread.currentThread().getContextClassLoader();
+            for (String event : events) {
+                try (var stream = classLoader.getResourceAsStream(basePath + "/" + event + SCHEMA_SUFFIX)) {
+                    if (stream == null) {
+                        log.warn("No json schema found for event '{}' in {}", event, location);
+                        continue;
                     }
+                    schemas.put(event, compileSchema(stream));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return schemas;
+        }
 
-                });
-        log.info("schemas: {}", results);
-
-    }*/
+        final var directory = Path.of(location);
+        final List<Path> files;
+        try (var paths = Files.walk(directory)) {
+            files = paths.filter(path -> path.toString().endsWith(SCHEMA_SUFFIX)).toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read json schemas from " + location, e);
+        }
+        for (Path file : files) {
+            final var relativePath = directory.relativize(file).toString().replace(File.separatorChar, '/');
+            final var event = relativePath.substring(0, relativePath.length() - SCHEMA_SUFFIX.length());
+            if (!events.isEmpty() && !events.contains(event)) {
+                continue;
+            }
+            try (var stream = Files.newInputStream(file)) {
+                schemas.put(event, compileSchema(stream));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return schemas;
+    }
 
+    public static JsonSchema compileSchema(final InputStream stream) {
+        final var schema = SCHEMA_FACTORY.getSchema(stream);
+        schema.initializeValidators();
+        return schema;
+    }
 }
@@ -1,10 +1,12 @@
 package org.iris_events.router.service;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.iris_events.router.config.RouterConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,12 +14,17 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.iris_events.router.client.AuthClient;
-import org.iris_events.router.events.HeartBeatEvent;
 import org.iris_events.router.model.AmqpMessage;
+import org.iris_events.router.model.IdGenerator;
+import org.iris_events.router.model.OutboundQueue;
 import org.iris_events.router.model.ResponseHandler;
+import org.iris_events.router.model.RouterFrames;
 import org.iris_events.router.model.UserSession;
+import org.iris_events.router.model.UserSessions;
 import org.iris_events.router.model.WSResponseHandler;
+import org.iris_events.router.ws.WsContainerConfigurator;
 import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.websocket.Session;
@@ -31,34 +38,62 @@ public class WebsocketRegistry {
 
     private static final Set<String> NON_RPC_DATATYPES = Set.of("subscribe-message",
             "unsubscribe-message",
-            "session-closed");
+            "session-closed",
+            "unsubscribe-internal");
     private final WSResponseHandler responseHandler;
     private final ObjectMapper objectMapper;
 
-    protected final ConcurrentHashMap<String, UserSession> sockets = new ConcurrentHashMap<>();
-    protected final ConcurrentHashMap<String, Set<UserSession>> users = new ConcurrentHashMap<>();
+    private final SessionShards shards;
+    private final BroadcastFanOut fanOut;
+    private final SessionIndex deviceIndex = new SessionIndex();
+    private final SessionIndex clientVersionIndex = new SessionIndex();
+    private final SessionIndex resourceIndex = new SessionIndex();
     protected final RequestRegistry requestRegistry;
     private final List<String> nonRpcEvents;
+    private final RouterConfig.Outbound outboundConfig;
+    private final RouterMetrics routerMetrics;
+    private final ScheduledExecutorService flushScheduler;
+    private final IdGenerator correlationIds;
+    private final RouterFrames routerFrames;
 
-    public WebsocketRegistry(RequestRegistry requestRegistry, ObjectMapper objectMapper, RouterConfig config) {
+    public WebsocketRegistry(RequestRegistry requestRegistry, ObjectMapper objectMapper, RouterConfig config,
+            RouterMetrics routerMetrics, @ConfigProperty(name = "quarkus.uuid") UUID routerId) {
         this.requestRegistry = requestRegistry;
         this.objectMapper = objectMapper;
+        this.correlationIds = IdGenerator.of(config.correlationIds(), routerId);
+        this.routerFrames = new RouterFrames(objectMapper);
+        this.shards = new SessionShards(config.registry().shards().orElse(Runtime.getRuntime().availableProcessors()),
+                config.registry().parallelThreshold());
+        LOGGER.info("session registry shards: {}", shards.shardCount());
+        this.fanOut = new BroadcastFanOut(config.registry().fanOutBatchSize());
+        this.outboundConfig = config.outbound();
+        this.routerMetrics = routerMetrics;
+        this.flushScheduler = outboundConfig.coalescing().enabled()
+                ? Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("outbound-flush").factory())
+                : null;
         this.nonRpcEvents = new ArrayList<>(config.nonRpcEvents());
         LOGGER.info("non rpc requests: {}", nonRpcEvents);
         this.nonRpcEvents.addAll(NON_RPC_DATATYPES);
-        this.responseHandler = new WSResponseHandler(this, objectMapper, nonRpcEvents);
+        this.responseHandler = new WSResponseHandler(this, objectMapper, nonRpcEvents,
+                Set.copyOf(outboundConfig.conflateEvents()));
     }
 
     public UserSession startSession(Session session, Map<String, List<String>> headers) {
         UserSession userSession = createUserSession(session, headers);
         String userId = userSession.getUserId();
-        sockets.put(userSession.getId(), userSession);
-        users.computeIfAbsent(userId, s -> new CopyOnWriteArraySet<>()).add(userSession);
+        final var shard = shards.forSocket(userSession.getId());
+        if (shard.sockets.put(userSession.getId(), userSession) == null) {
+            shard.size.incrementAndGet();
+        }
+        addUserSession(userId, userSession);
+        fanOut.add(userSession);
+        deviceIndex.add(userSession.getClientDeviceId(), userSession);
+        clientVersionIndex.add(userSession.getClientVersion(), userSession);
         return userSession;
     }
 
     public UserSession getSession(String sessionId) {
-        final var userSession = sockets.get(sessionId);
+        final var userSession = shards.forSocket(sessionId).sockets.get(sessionId);
         if (LOGGER.isTraceEnabled()) {
             if (userSession == null) {
 
@@ -69,46 +104,140 @@ public class WebsocketRegistry {
     }
 
     public boolean hasUserSession(String userId) {
-        return users.containsKey(userId);
+        return shards.forUser(userId).users.containsKey(userId);
+    }
+
+    public int getSessionCount() {
+        return shards.size();
+    }
+
+    /**
+     * Runs action for all sessions, shards are visited in parallel once there are enough sessions. Returns when
+     * action ran for every session.
+     */
+    public void forEachSession(Consumer<UserSession> action) {
+        shards.forEach(action);
+    }
+
+    /**
+     * Enqueues action for all sessions on the event loops owning them and returns without waiting for it to run.
+     */
+    public void broadcast(Consumer<UserSession> action) {
+        fanOut.dispatch(action);
     }
 
-    public Collection<UserSession> getAllSessions() {
-        return sockets.values();
+    /**
+     * Enqueues action for the session on the event loop owning it, after broadcasts already enqueued for it, so
+     * backend messages reach the client in the order they were received.
+     */
+    public void send(UserSession userSession, Consumer<UserSession> action) {
+        fanOut.send(userSession, action);
+    }
+
+    /**
+     * @return sessions on given device, empty when there are none
+     */
+    public Collection<UserSession> getDeviceSessions(String deviceId) {
+        return deviceIndex.get(deviceId);
+    }
+
+    /**
+     * @return sessions of clients with given version, empty when there are none
+     */
+    public Collection<UserSession> getClientVersionSessions(String clientVersion) {
+        return clientVersionIndex.get(clientVersion);
+    }
+
+    /**
+     * @return sessions subscribed to the resource, empty when there are none
+     */
+    public Collection<UserSession> getResourceSessions(String resourceType, String resourceId) {
+        if (resourceType == null || resourceId == null) {
+            return Set.of();
+        }
+        return resourceIndex.get(resourceKey(resourceType, resourceId));
+    }
+
+    public void subscribe(UserSession userSession, String resourceType, String resourceId) {
+        final var key = resourceKey(resourceType, resourceId);
+        if (userSession.getResourceSubscriptions().add(key)) {
+            resourceIndex.add(key, userSession);
+            if (!isRegistered(userSession)) {
+                resourceIndex.remove(key, userSession);
+            }
+        }
+    }
+
+    public void unsubscribe(UserSession userSession, String resourceType, String resourceId) {
+        final var key = resourceKey(resourceType, resourceId);
+        if (userSession.getResourceSubscriptions().remove(key)) {
+            resourceIndex.remove(key, userSession);
+        }
     }
 
-    public Set<UserSession> getAllUserSessions(String userId) {
-        return users.get(userId);
+    private static String resourceKey(String resourceType, String resourceId) {
+        return resourceType + '\n' + resourceId;
+    }
+
+    public void updateDeviceId(UserSession userSession, String deviceId) {
+        final var oldDeviceId = userSession.getClientDeviceId();
+        userSession.updateDeviceId(deviceId);
+        deviceIndex.move(oldDeviceId, deviceId, userSession);
+        if (!isRegistered(userSession)) {
+            deviceIndex.remove(deviceId, userSession);
+        }
+    }
+
+    /**
+     * Blocking handlers may finish after the socket was closed. As {@link #removeSocket(String)} drops the socket
+     * before it cleans up the indexes, handlers update the indexes first and undo the update when this check fails.
+     */
+    private boolean isRegistered(UserSession userSession) {
+        return shards.forSocket(userSession.getId()).sockets.get(userSession.getId()) == userSession;
+    }
+
+    /**
+     * @return sessions of the user, null when user has no sessions on this router
+     */
+    public UserSessions getAllUserSessions(String userId) {
+        return shards.forUser(userId).users.get(userId);
     }
 
     public UserSession removeSocket(String socketId) {
         LOGGER.trace("removing socket: {}", socketId);
-        UserSession socket = sockets.remove(socketId);
+        final var shard = shards.forSocket(socketId);
+        UserSession socket = shard.sockets.remove(socketId);
         if (socket != null) {
-            var userSockets = users.get(socket.getUserId());
-            if (userSockets != null) {
-                int count = userSockets.size();
-                if (userSockets.remove(socket)) {
-                    count--;
-                }
-                if (count <= 0) {
-                    //LOGGER.info("[{}]-'{}' After socket removal there are no more sockets for user", socketId, socket.getUserId());
-                    users.remove(socket.getUserId());
-                } else {
-                    //LOGGER.info("[{}]-'{}' After socket removal there are still '{}' sockets for user", socketId, socket.getUserId(), userSockets.size());
-
-                }
+            shard.size.decrementAndGet();
+            fanOut.remove(socket);
+            deviceIndex.remove(socket.getClientDeviceId(), socket);
+            clientVersionIndex.remove(socket.getClientVersion(), socket);
+            for (String resourceKey : socket.getResourceSubscriptions()) {
+                resourceIndex.remove(resourceKey, socket);
             }
-
+            tokenExpiryScheduler.cancel(socket);
+            removeUserSession(socket.getUserId(), socket);
         }
         return socket;
     }
 
+    private void addUserSession(String userId, UserSession userSession) {
+        shards.forUser(userId).users.compute(userId,
+                (id, sessions) -> sessions == null ? UserSessions.of(userSession) : sessions.with(userSession));
+    }
+
+    private void removeUserSession(String userId, UserSession userSession) {
+        shards.forUser(userId).users.computeIfPresent(userId, (id, sessions) -> sessions.without(userSession));
+    }
+
     public ResponseHandler getResponseHandler() {
         return responseHandler;
     }
 
     public UserSession createUserSession(Session session, Map<String, List<String>> headers) {
-        return new UserSession(objectMapper, session, headers);
+        final var coalescing = flushScheduler != null && WsContainerConfigurator.isCoalescingRequested(headers);
+        final var outboundQueue = new OutboundQueue(session, outboundConfig, routerMetrics, coalescing ? flushScheduler : null);
+        return new UserSession(objectMapper, session, headers, outboundQueue, correlationIds, routerFrames);
     }
 
     public void registerRequest(AmqpMessage message) {
@@ -121,30 +250,48 @@ public class WebsocketRegistry {
         requestRegistry.registerNewRequest(message, responseHandler);
     }
 
+    public void registerRequests(List<AmqpMessage> messages) {
+        final var rpcMessages = new ArrayList<AmqpMessage>(messages.size());
+        for (AmqpMessage message : messages) {
+            if (!nonRpcEvents.contains(message.eventType())) {
+                rpcMessages.add(message);
+            }
+        }
+        requestRegistry.registerNewRequests(rpcMessages, responseHandler);
+    }
+
     public boolean logout(String sessionId) {
-        UserSession session = sockets.get(sessionId);
+        UserSession session = getSession(sessionId);
         if (session == null) {
             LOGGER.warn("Could not find session: {}, cannot perform logout!", sessionId);
             return false;
         }
         String currentUserId = session.getUserId();
         String newUserId = session.logOut();
-        updateUserId(currentUserId, newUserId);
+        tokenExpiryScheduler.cancel(session);
+        moveSession(session, currentUserId, newUserId);
         return true;
     }
 
     @Inject
     AuthClient authClient;
 
-    public void updateUserId(String oldUserId, String newUserId) {
+    @Inject
+    TokenExpiryScheduler tokenExpiryScheduler;
+
+    /**
+     * Moves only the given session to new user id, other sessions of the old user stay where they are. Session is
+     * added under the new id before it is removed from the old one, so it is never missing from the index.
+     */
+    void moveSession(UserSession userSession, String oldUserId, String newUserId) {
         if (oldUserId.equals(newUserId)) {
             return;
         }
         LOGGER.info("updating identity for user: {}, --> {}", oldUserId, newUserId);
-        Set<UserSession> sessions = users.computeIfAbsent(newUserId, s -> new CopyOnWriteArraySet<>());
-        Set<UserSession> oldSessions = users.remove(oldUserId);
-        if (oldSessions != null) {
-            sessions.addAll(oldSessions);
+        addUserSession(newUserId, userSession);
+        removeUserSession(oldUserId, userSession);
+        if (!isRegistered(userSession)) {
+            removeUserSession(newUserId, userSession);
         }
     }
 
@@ -153,8 +300,13 @@ public class WebsocketRegistry {
         if (jwtToken != null) {
             var oldId = userSession.getUserId();
             userSession.login(jwtToken);
+            tokenExpiryScheduler.schedule(userSession);
             LOGGER.info("user logged in: {}, roles: {}, token expiry: {}", jwtToken.getSubject(), jwtToken.getGroups(), jwtToken.getExpirationTime());
-            updateUserId(oldId, userSession.getUserId());
+            moveSession(userSession, oldId, userSession.getUserId());
+            if (!isRegistered(userSession)) {
+                LOGGER.info("socket closed during login: {}", userSession.getId());
+                tokenExpiryScheduler.cancel(userSession);
+            }
             return true;
         } else {
             return false;
@@ -172,14 +324,22 @@ public class WebsocketRegistry {
      * }
      */
 
+    @PreDestroy
+    void shutdown() {
+        if (flushScheduler != null) {
+            flushScheduler.shutdown();
+        }
+        shards.shutdown();
+    }
+
     @Scheduled(delay = 10, delayUnit = TimeUnit.SECONDS, every = "30s")
     public void sendHeartBeat() {
-        for (UserSession session : getAllSessions()) {
+        forEachSession(session -> {
             session.ping();
             if (session.isSendHeartbeat()) {
-                session.sendEvent(new HeartBeatEvent(), null);
+                session.sendHeartbeat();
             }
-        }
+        });
     }
 
 }
@@ -0,0 +1,23 @@
+package org.iris_events.router.ws;
+
+import java.io.IOException;
+
+/**
+ * Batch frame holds more requests than allowed, thrown as soon as the first request over the limit is reached.
+ */
+class BatchTooLargeException extends IOException {
+
+    private final String clientTraceId;
+
+    BatchTooLargeException(final int maxBatchSize, final String clientTraceId) {
+        super("Batch exceeds limit of " + maxBatchSize + " requests");
+        this.clientTraceId = clientTraceId;
+    }
+
+    /**
+     * @return client trace id of the first request in the batch
+     */
+    String getClientTraceId() {
+        return clientTraceId;
+    }
+}
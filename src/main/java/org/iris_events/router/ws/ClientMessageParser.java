@@ -0,0 +1,172 @@
+package org.iris_events.router.ws;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.iris_events.router.model.RequestWrapper;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Single pass parser for client frames. Reads {@code event} and {@code client_trace_id} with a streaming parser and
+ * keeps {@code payload} as a slice of the original frame, so payload is never materialized as a json tree.
+ */
+public final class ClientMessageParser {
+
+    private static final String EVENT_FIELD = "event";
+    private static final String PAYLOAD_FIELD = "payload";
+    private static final String CLIENT_TRACE_ID_FIELD = "client_trace_id";
+    private static final String CLIENT_TRACE_ID_ALIAS = "clientTraceId";
+    private static final byte BINARY_VERSION = 1;
+
+    private ClientMessageParser() {
+    }
+
+    public static RequestWrapper parse(final JsonFactory jsonFactory, final byte[] frame) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected json object");
+            }
+            return readEnvelope(parser, frame);
+        }
+    }
+
+    /**
+     * Parses batch frame, a json array of client request envelopes. Parsing stops at the first request over
+     * {@code maxBatchSize}, rest of the frame is never read.
+     *
+     * @throws BatchTooLargeException when batch holds more than {@code maxBatchSize} requests
+     */
+    public static List<RequestWrapper> parseBatch(final JsonFactory jsonFactory, final byte[] frame,
+            final int maxBatchSize) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(frame)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "Expected json array");
+            }
+            final var requests = new ArrayList<RequestWrapper>();
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+                if (requests.size() == maxBatchSize) {
+                    throw new BatchTooLargeException(maxBatchSize,
+                            requests.isEmpty() ? null : requests.getFirst().clientTraceId());
+                }
+                requests.add(readEnvelope(parser, frame));
+            }
+            if (token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Expected json object");
+            }
+            return requests;
+        }
+    }
+
+    /**
+     * @return true when frame contains json array, a batch of requests
+     */
+    public static boolean isBatch(final String frame) {
+        for (int i = 0; i < frame.length(); i++) {
+            final var c = frame.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '[';
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses binary client frame:
+     * <pre>
+     * version          1 byte, {@value #BINARY_VERSION}
+     * event length     1 byte, unsigned
+     * event            utf-8
+     * trace id length  1 byte, unsigned, 0 when there is no client trace id
+     * trace id         utf-8
+     * payload          utf-8 json object, rest of the frame
+     * </pre>
+     * Payload is not decoded, returned buffer references the frame.
+     */
+    public static RequestWrapper parseBinary(final byte[] frame) {
+        if (frame[0] != BINARY_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary frame version " + frame[0]);
+        }
+        var offset = 1;
+        final var eventLength = readLength(frame, offset++);
+        final var event = readString(frame, offset, eventLength);
+        offset += eventLength;
+        final var traceIdLength = readLength(frame, offset++);
+        final var clientTraceId = readString(frame, offset, traceIdLength);
+        offset += traceIdLength;
+
+        final var payloadLength = frame.length - offset;
+        final var payload = payloadLength > 0 ? Buffer.buffer(Unpooled.wrappedBuffer(frame, offset, payloadLength)) : null;
+        return RequestWrapper.raw(event, clientTraceId, payload);
+    }
+
+    private static int readLength(final byte[] frame, final int offset) {
+        if (offset >= frame.length) {
+            throw new IllegalArgumentException("Binary frame header truncated");
+        }
+        return frame[offset] & 0xFF;
+    }
+
+    private static String readString(final byte[] frame, final int offset, final int length) {
+        if (length == 0) {
+            return null;
+        }
+        if (offset + length > frame.length) {
+            throw new IllegalArgumentException("Binary frame header truncated");
+        }
+        return new String(frame, offset, length, StandardCharsets.UTF_8);
+    }
+
+    static RequestWrapper readEnvelope(final JsonParser parser, final byte[] frame) throws IOException {
+        String event = null;
+        String clientTraceId = null;
+        Buffer payload = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var fieldName = parser.currentName();
+            final var token = parser.nextToken();
+            switch (fieldName) {
+                case EVENT_FIELD -> event = readString(parser, token);
+                case CLIENT_TRACE_ID_FIELD, CLIENT_TRACE_ID_ALIAS -> clientTraceId = readString(parser, token);
+                case PAYLOAD_FIELD -> payload = readPayload(parser, token, frame);
+                default -> parser.skipChildren();
+            }
+        }
+        return RequestWrapper.raw(event, clientTraceId, payload);
+    }
+
+    private static String readString(final JsonParser parser, final JsonToken token) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isStructStart()) {
+            throw new JsonParseException(parser, "Expected string value for '" + parser.currentName() + "'");
+        }
+        return parser.getText();
+    }
+
+    private static Buffer readPayload(final JsonParser parser, final JsonToken token, final byte[] frame)
+            throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "'payload' must be json object");
+        }
+        final var start = (int) parser.currentTokenLocation().getByteOffset();
+        parser.skipChildren();
+        final var end = (int) parser.currentLocation().getByteOffset();
+        if (start < 0 || end > frame.length || frame[start] != '{') {
+            throw new JsonParseException(parser, "Could not locate 'payload' in frame");
+        }
+        return Buffer.buffer(Unpooled.wrappedBuffer(frame, start, end - start));
+    }
+}
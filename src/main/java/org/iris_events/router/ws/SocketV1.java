@@ -1,6 +1,7 @@
 package org.iris_events.router.ws;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
@@ -9,26 +10,26 @@ import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.inject.spi.CDI;
 import org.iris_events.router.config.RouterConfig;
 import org.iris_events.router.events.ErrorEvent;
+import org.iris_events.router.logging.LogContext;
 import org.iris_events.router.model.RequestWrapper;
 import org.iris_events.router.model.UserSession;
 import org.iris_events.router.model.sub.SessionClosed;
 import org.iris_events.router.service.BackendService;
+import org.iris_events.router.service.HandlerExecutor;
+import org.iris_events.router.service.RateLimiter;
+import org.iris_events.router.service.RouterMetrics;
+import org.iris_events.router.service.ValidationService;
 import org.iris_events.router.service.WebsocketRegistry;
-import org.iris_events.router.ws.message.handler.DefaultHandler;
 import org.iris_events.router.ws.message.handler.MessageHandler;
+import org.iris_events.router.ws.message.handler.MessageHandlerRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.slf4j.MDC;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import org.iris_events.common.MDCProperties;
 import org.iris_events.common.ErrorType;
 import org.iris_events.common.message.ErrorMessage;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.enterprise.inject.Any;
-import jakarta.enterprise.inject.Instance;
-import jakarta.enterprise.inject.literal.NamedLiteral;
 import jakarta.inject.Inject;
 import jakarta.websocket.CloseReason;
 import jakarta.websocket.EndpointConfig;
@@ -43,8 +44,10 @@ import jakarta.websocket.server.ServerEndpoint;
 @ApplicationScoped
 public class SocketV1 {
     private static final Logger log = LoggerFactory.getLogger(SocketV1.class);
+    private static final int CONTAINER_FRAME_LIMIT_FACTOR = 4;
 
     public static final String IRIS_SESSION_ID_HEADER = "x-iris-session-id";
+    public static final String IRIS_COALESCE_HEADER = "x-iris-coalesce";
     @Inject
     RouterConfig config;
 
@@ -55,8 +58,15 @@ public class SocketV1 {
     @Inject
     BackendService backendService;
     @Inject
-    @Any
-    Instance<MessageHandler> messageHandlers;
+    MessageHandlerRegistry messageHandlerRegistry;
+    @Inject
+    RateLimiter rateLimiter;
+    @Inject
+    RouterMetrics routerMetrics;
+    @Inject
+    ValidationService validationService;
+    @Inject
+    HandlerExecutor handlerExecutor;
 
     private List<String> bannedUserAgents;
     private List<String> bannedClients;
@@ -95,15 +105,17 @@ public class SocketV1 {
             //  but there is no reliable way to share state between ws configurator and endpoint, for now we are generating it here,
             //  which will break mdc session id tracking between clients end backend, but better than having same session id for multiple web socket sessions.
             final var irisSessionId = UUID.randomUUID().toString();
-            MDC.put(MDCProperties.SESSION_ID, irisSessionId);
+            final var logContext = LogContext.current().session(irisSessionId);
             session.getUserProperties().put(IRIS_SESSION_ID_HEADER, irisSessionId);
+            session.setMaxTextMessageBufferSize(containerFrameLimit());
+            session.setMaxBinaryMessageBufferSize(containerFrameLimit());
 
             Map<String, List<String>> headers = Optional
                     .ofNullable(new HashMap<>((Map<String, List<String>>) conf.getUserProperties().remove("headers")))
                     .orElse(new HashMap<>());
             headers.put(IRIS_SESSION_ID_HEADER, List.of(irisSessionId));
 
-            headers.forEach((k, v) -> MDC.put("header."+k, v.toString()));
+            logContext.headers(headers);
 
             if (checkForBannedClient(headers)) {
                 log.warn("Bad client, closing websocket.");
@@ -120,26 +132,27 @@ public class SocketV1 {
             var userSession = websocketRegistry.startSession(session, headers);
 
         } finally {
-            MDC.clear();
+            LogContext.clear();
         }
     }
 
     @OnClose
     public void onClose(Session session, CloseReason reason) {
         final var sessionId = (String) session.getUserProperties().get(IRIS_SESSION_ID_HEADER);
-        MDC.put(MDCProperties.SESSION_ID, sessionId);
-        var userSession = websocketRegistry.removeSocket(sessionId);
-        Optional.ofNullable(userSession).ifPresent(us -> MDC.put(MDCProperties.USER_ID, us.getUserId()));
-        log.info("Closing websocket user session. reason: {}, closeCode: {}", reason.getReasonPhrase(),
-                reason.getCloseCode());
-        if (userSession != null) {
-            userSession.close(reason);
-            final var userId = userSession.getUserId();
-            final var sessionClosed = new SessionClosed(userId, sessionId);
-            backendService.sendInternalEvent(userSession, null, sessionClosed);
+        try {
+            var userSession = websocketRegistry.removeSocket(sessionId);
+            LogContext.current().session(sessionId).session(userSession);
+            log.info("Closing websocket user session. reason: {}, closeCode: {}", reason.getReasonPhrase(),
+                    reason.getCloseCode());
+            if (userSession != null) {
+                userSession.close(reason);
+                final var userId = userSession.getUserId();
+                final var sessionClosed = new SessionClosed(userId, sessionId);
+                backendService.sendInternalEvent(userSession, null, sessionClosed);
+            }
+        } finally {
+            LogContext.clear();
         }
-        MDC.remove(MDCProperties.SESSION_ID);
-        MDC.remove(MDCProperties.USER_ID);
     }
 
     @OnError
@@ -153,7 +166,7 @@ public class SocketV1 {
 
         final var sessionId = (String) session.getUserProperties().get(IRIS_SESSION_ID_HEADER);
         try {
-            MDC.put(MDCProperties.SESSION_ID, sessionId);
+            LogContext.current().session(sessionId);
             if (message.isEmpty()) {
                 log.warn("Received empty message, discarding message.");
                 return;
@@ -163,60 +176,205 @@ public class SocketV1 {
                 log.warn("No open user session found, discarding message.");
                 return;
             }
+            LogContext.current().session(userSession);
 
-            final var msgFromClient = objectMapper.readValue(message, RequestWrapper.class);
-            userSession.setupMDC();
-            Optional.ofNullable(msgFromClient.clientTraceId())
-                    .ifPresent(clientTraceId -> MDC.put(MDCProperties.CLIENT_TRACE_ID, msgFromClient.clientTraceId()));
-
-
-            if (msgFromClient.event() == null) {
-                log.warn("'event' information missing, discarding message");
-                final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.EVENT_MISSING_CLIENT_CODE, "'event' missing");
-                userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+            // utf-8 encoded frame is never shorter than number of chars
+            if (isFrameTooLarge(userSession, message.length())) {
+                return;
+            }
+            final var frame = message.getBytes(StandardCharsets.UTF_8);
+            if (isFrameTooLarge(userSession, frame.length)) {
                 return;
             }
+            if (ClientMessageParser.isBatch(message)) {
+                final List<RequestWrapper> requests;
+                try {
+                    requests = ClientMessageParser.parseBatch(objectMapper.getFactory(), frame, config.maxBatchSize());
+                } catch (BatchTooLargeException e) {
+                    rejectBatch(userSession, e.getClientTraceId());
+                    return;
+                }
+                handleBatch(session, userSession, requests);
+            } else {
+                handleMessage(session, userSession, ClientMessageParser.parse(objectMapper.getFactory(), frame));
+            }
+        } catch (Exception e) {
+            sendReadFailure(session, e);
+        } finally {
+            LogContext.clear();
+        }
+    }
 
-            if (msgFromClient.payload() == null) {
-                log.warn("'payload' missing, discarding message.");
-                final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.PAYLOAD_MISSING_CLIENT_CODE,
-                        "'payload' missing");
-                userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+    /**
+     * Binary frames carry a small header with event name and client trace id, followed by the json payload, see
+     * {@link ClientMessageParser#parseBinary(byte[])}. Payload bytes are passed to the backend as they are.
+     * <p>
+     * {@code byte[]} is used instead of {@link java.nio.ByteBuffer} as the container hands over a freshly allocated
+     * array, which can be safely referenced after this method returns, while the payload is still being published.
+     */
+    @OnMessage
+    public void onBinaryMessage(Session session, byte[] message) {
+        final var sessionId = (String) session.getUserProperties().get(IRIS_SESSION_ID_HEADER);
+        try {
+            LogContext.current().session(sessionId);
+            if (!config.binaryFrames()) {
+                log.warn("Binary frames are not enabled, closing websocket.");
+                session.close(new CloseReason(CloseReason.CloseCodes.CANNOT_ACCEPT, "Binary frames not supported"));
+                return;
+            }
+            if (message.length == 0) {
+                log.warn("Received empty message, discarding message.");
+                return;
+            }
+            final var userSession = websocketRegistry.getSession(sessionId);
+            if (userSession == null) {
+                log.warn("No open user session found, discarding message.");
+                return;
+            }
+            LogContext.current().session(userSession);
+            if (isFrameTooLarge(userSession, message.length)) {
                 return;
             }
 
-            MDC.put(MDCProperties.EVENT_TYPE, msgFromClient.event());
-            final var messageHandler = getMessageHandler(msgFromClient.event());
-            log.debug("Handling websocket client message. event_type: {}", msgFromClient.event());
-            messageHandler.handle(userSession, msgFromClient);
+            handleMessage(session, userSession, ClientMessageParser.parseBinary(message));
         } catch (Exception e) {
-            log.error("Could not handle websocket client message {}", e.getMessage());
-            session.getAsyncRemote().sendText("Could not read message " + e.getMessage());
+            sendReadFailure(session, e);
         } finally {
-            MDC.remove(MDCProperties.SESSION_ID);
-            MDC.remove(MDCProperties.EVENT_TYPE);
-            MDC.remove(MDCProperties.CORRELATION_ID);
-            MDC.remove(MDCProperties.CLIENT_TRACE_ID);
-            UserSession.clearMDC();
-            MDC.clear();
+            LogContext.clear();
+        }
+    }
+
+    private static void sendReadFailure(final Session session, final Exception e) {
+        log.error("Could not handle websocket client message {}", e.getMessage());
+        session.getAsyncRemote().sendText("Could not read message " + e.getMessage());
+    }
+
+    private void handleMessage(final Session session, final UserSession userSession, final RequestWrapper msgFromClient) {
+        LogContext.current().request(msgFromClient.event(), msgFromClient.clientTraceId());
+        if (!checkMessage(userSession, msgFromClient)) {
+            return;
+        }
+
+        final var messageHandler = messageHandlerRegistry.get(msgFromClient.event());
+        log.debug("Handling websocket client message. event_type: {}", msgFromClient.event());
+        handlerExecutor.execute(userSession, messageHandler.isBlocking(),
+                () -> messageHandler.handle(userSession, msgFromClient), e -> sendReadFailure(session, e));
+    }
+
+    /**
+     * Dispatches batch of requests in order. Consecutive requests handled by the same handler are passed to it
+     * together, so they can be published and registered as a batch.
+     */
+    private void handleBatch(final Session session, final UserSession userSession, final List<RequestWrapper> requests) {
+        log.debug("Handling websocket client batch message. size: {}", requests.size());
+        MessageHandler currentHandler = null;
+        List<RequestWrapper> pending = new ArrayList<>();
+        for (RequestWrapper request : requests) {
+            LogContext.current().request(request.event(), request.clientTraceId());
+            if (!checkMessage(userSession, request)) {
+                continue;
+            }
+            final var messageHandler = messageHandlerRegistry.get(request.event());
+            if (messageHandler != currentHandler && !pending.isEmpty()) {
+                handle(session, userSession, currentHandler, pending);
+                pending = new ArrayList<>();
+            }
+            currentHandler = messageHandler;
+            pending.add(request);
+        }
+        if (!pending.isEmpty()) {
+            handle(session, userSession, currentHandler, pending);
         }
     }
 
-    private MessageHandler getMessageHandler(final String eventName) {
-        if (Objects.isNull(eventName) || eventName.isBlank()) {
-            return getDefaultMessageHandler();
+    /**
+     * Error carries client trace id of the first request in the batch, so client can correlate it.
+     */
+    private void rejectBatch(final UserSession userSession, final String clientTraceId) {
+        log.warn("Batch exceeds limit of {} requests, discarding message.", config.maxBatchSize());
+        final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.BATCH_TOO_LARGE_CLIENT_CODE,
+                "batch too large");
+        userSession.sendErrorMessage(errorEvent, clientTraceId);
+        routerMetrics.messageRejected(RouterMetrics.RejectReason.BATCH_TOO_LARGE);
+    }
+
+    private void handle(final Session session, final UserSession userSession, final MessageHandler messageHandler,
+            final List<RequestWrapper> requests) {
+        handlerExecutor.execute(userSession, messageHandler.isBlocking(), () -> messageHandler.handle(userSession, requests),
+                e -> sendReadFailure(session, e));
+    }
+
+    private boolean checkMessage(final UserSession userSession, final RequestWrapper msgFromClient) {
+        if (msgFromClient.event() == null) {
+            log.warn("'event' information missing, discarding message");
+            final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.EVENT_MISSING_CLIENT_CODE, "'event' missing");
+            userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+            return false;
         }
 
-        final var messageHandlerInstance = messageHandlers.select(NamedLiteral.of(eventName));
-        if (messageHandlerInstance.isResolvable()) {
-            return messageHandlerInstance.get();
+        if (!msgFromClient.hasPayload()) {
+            log.warn("'payload' missing, discarding message.");
+            final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.PAYLOAD_MISSING_CLIENT_CODE,
+                    "'payload' missing");
+            userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+            return false;
+        }
+
+        final var payload = msgFromClient.rawPayload();
+        if (payload != null) {
+            final var limits = config.limits();
+            final var maxPayloadSize = limits.events().getOrDefault(msgFromClient.event(), limits.maxPayloadSize());
+            if (payload.length() > maxPayloadSize) {
+                log.warn("Payload of {} bytes exceeds limit of {} bytes, discarding message.", payload.length(), maxPayloadSize);
+                final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.PAYLOAD_TOO_LARGE_CLIENT_CODE,
+                        "'payload' too large");
+                userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+                routerMetrics.messageRejected(RouterMetrics.RejectReason.PAYLOAD_TOO_LARGE);
+                return false;
+            }
         }
 
-        return getDefaultMessageHandler();
+        if (!rateLimiter.tryAcquire(userSession, msgFromClient.event())) {
+            log.warn("Rate limit exceeded for event '{}', discarding message.", msgFromClient.event());
+            final var errorEvent = new ErrorMessage(ErrorType.FORBIDDEN, ErrorEvent.THROTTLED_CLIENT_CODE,
+                    "rate limit exceeded");
+            userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+            routerMetrics.messageRejected(RouterMetrics.RejectReason.THROTTLED);
+            return false;
+        }
+
+        if (payload != null && validationService.hasSchema(msgFromClient.event())) {
+            final var errors = validationService.validate(msgFromClient.event(), payload);
+            if (!errors.isEmpty()) {
+                log.warn("Payload of event '{}' does not match schema, discarding message. errors: {}", msgFromClient.event(), errors);
+                final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.VALIDATION_FAILED_CLIENT_CODE,
+                        errors.get(0));
+                userSession.sendErrorMessage(errorEvent, msgFromClient.clientTraceId());
+                routerMetrics.messageRejected(RouterMetrics.RejectReason.VALIDATION_FAILED);
+                return false;
+            }
+        }
+        return true;
     }
 
-    private MessageHandler getDefaultMessageHandler() {
-        return messageHandlers.select(DefaultHandler.Literal.INSTANCE).get();
+    /**
+     * Frames over the limit are rejected here with an error event, before they are parsed. Container limit is only a
+     * backstop against frames too large to buffer, the connection is closed with 1009 (too big) when it is exceeded.
+     */
+    private int containerFrameLimit() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) config.limits().maxFrameSize() * CONTAINER_FRAME_LIMIT_FACTOR);
     }
 
+    private boolean isFrameTooLarge(final UserSession userSession, final int frameSize) {
+        final var maxFrameSize = config.limits().maxFrameSize();
+        if (frameSize <= maxFrameSize) {
+            return false;
+        }
+        log.warn("Frame of {} bytes exceeds limit of {} bytes, discarding message.", frameSize, maxFrameSize);
+        final var errorEvent = new ErrorMessage(ErrorType.BAD_PAYLOAD, ErrorEvent.FRAME_TOO_LARGE_CLIENT_CODE,
+                "frame too large");
+        userSession.sendErrorMessage(errorEvent, null);
+        routerMetrics.messageRejected(RouterMetrics.RejectReason.FRAME_TOO_LARGE);
+        return true;
+    }
 }
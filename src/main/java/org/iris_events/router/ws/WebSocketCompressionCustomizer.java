@@ -0,0 +1,43 @@
+package org.iris_events.router.ws;
+
+import org.iris_events.router.config.RouterConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.quarkus.vertx.http.HttpServerOptionsCustomizer;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Configures permessage-deflate negotiation of websocket upgrades, see {@link RouterConfig.Compression}.
+ */
+@ApplicationScoped
+public class WebSocketCompressionCustomizer implements HttpServerOptionsCustomizer {
+    private static final Logger log = LoggerFactory.getLogger(WebSocketCompressionCustomizer.class);
+
+    private final RouterConfig.Compression compression;
+
+    public WebSocketCompressionCustomizer(RouterConfig config) {
+        this.compression = config.compression();
+    }
+
+    @Override
+    public void customizeHttpServer(HttpServerOptions options) {
+        apply(options);
+    }
+
+    @Override
+    public void customizeHttpsServer(HttpServerOptions options) {
+        apply(options);
+    }
+
+    void apply(final HttpServerOptions options) {
+        options.setPerFrameWebSocketCompressionSupported(false)
+                .setPerMessageWebSocketCompressionSupported(compression.enabled())
+                .setWebSocketCompressionLevel(compression.level())
+                .setWebSocketAllowServerNoContext(compression.noContextTakeover())
+                .setWebSocketPreferredClientNoContext(compression.noContextTakeover());
+        log.info("Websocket permessage-deflate enabled: {}, level: {}, no context takeover: {}", compression.enabled(),
+                compression.level(), compression.noContextTakeover());
+    }
+}
@@ -1,15 +1,19 @@
 package org.iris_events.router.ws;
 
 import io.undertow.websockets.DefaultContainerConfigurator;
+import jakarta.enterprise.inject.spi.CDI;
 import jakarta.websocket.HandshakeResponse;
 import jakarta.websocket.server.HandshakeRequest;
 import jakarta.websocket.server.ServerEndpointConfig;
+import org.iris_events.router.config.RouterConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
+import static org.iris_events.router.ws.SocketV1.IRIS_COALESCE_HEADER;
 import static org.iris_events.router.ws.SocketV1.IRIS_SESSION_ID_HEADER;
 
 public class WsContainerConfigurator extends DefaultContainerConfigurator {
@@ -21,6 +25,18 @@ public class WsContainerConfigurator extends DefaultContainerConfigurator {
         sec.getUserProperties().put(IRIS_SESSION_ID_HEADER, irisSessionId);
         response.getHeaders().put(IRIS_SESSION_ID_HEADER, List.of(irisSessionId));
         sec.getUserProperties().put("headers", request.getHeaders());
+        if (isCoalescingRequested(request.getHeaders()) && coalescingEnabled()) {
+            response.getHeaders().put(IRIS_COALESCE_HEADER, List.of("true"));
+        }
+    }
+
+    public static boolean isCoalescingRequested(Map<String, List<String>> headers) {
+        final var values = headers.get(IRIS_COALESCE_HEADER);
+        return values != null && values.contains("true");
+    }
+
+    private static boolean coalescingEnabled() {
+        return CDI.current().select(RouterConfig.class).get().outbound().coalescing().enabled();
     }
 
 
@@ -1,5 +1,7 @@
 package org.iris_events.router.ws.message.handler;
 
+import java.util.List;
+
 import org.iris_events.router.model.RequestWrapper;
 import org.iris_events.router.model.UserSession;
 import org.iris_events.router.service.BackendService;
@@ -21,4 +23,13 @@ public class DefaultMessageHandler implements MessageHandler {
         }
         backendService.sendFrontendEvent(userSession, requestWrapper);
     }
+
+    @Override
+    public void handle(UserSession userSession, List<RequestWrapper> requestWrappers) {
+        if (!userSession.isValid()) {
+            requestWrappers.forEach(requestWrapper -> userSession.sendSessionInvalidError(requestWrapper.clientTraceId()));
+            return;
+        }
+        backendService.sendFrontendEvents(userSession, requestWrappers);
+    }
 }
@@ -1,8 +1,27 @@
 package org.iris_events.router.ws.message.handler;
 
+import java.util.List;
+
 import org.iris_events.router.model.RequestWrapper;
 import org.iris_events.router.model.UserSession;
 
 public interface MessageHandler {
     void handle(UserSession userSession, RequestWrapper requestWrapper);
+
+    /**
+     * Blocking handlers do I/O or expensive work and are moved off the websocket I/O thread when
+     * {@code iris.router.handler-execution} is {@code virtual-thread}.
+     */
+    default boolean isBlocking() {
+        return false;
+    }
+
+    /**
+     * Handles consecutive requests of a batch frame, all dispatched to this handler.
+     */
+    default void handle(UserSession userSession, List<RequestWrapper> requestWrappers) {
+        for (RequestWrapper requestWrapper : requestWrappers) {
+            handle(userSession, requestWrapper);
+        }
+    }
 }
@@ -0,0 +1,56 @@
+package org.iris_events.router.ws.message.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.inject.Inject;
+
+/**
+ * Event name to {@link MessageHandler} dispatch table, resolved once at startup.
+ */
+@ApplicationScoped
+public class MessageHandlerRegistry {
+    private static final Logger log = LoggerFactory.getLogger(MessageHandlerRegistry.class);
+
+    private final Map<String, MessageHandler> handlers;
+    private final MessageHandler defaultHandler;
+
+    @Inject
+    public MessageHandlerRegistry(BeanManager beanManager, @Any Instance<MessageHandler> messageHandlers) {
+        final var namedHandlers = new HashMap<String, MessageHandler>();
+        for (Bean<?> bean : beanManager.getBeans(MessageHandler.class, Any.Literal.INSTANCE)) {
+            final var name = bean.getName();
+            if (name != null) {
+                namedHandlers.put(name, messageHandlers.select(NamedLiteral.of(name)).get());
+            }
+        }
+        this.handlers = Map.copyOf(namedHandlers);
+        this.defaultHandler = messageHandlers.select(DefaultHandler.Literal.INSTANCE).get();
+        log.info("Registered message handlers for events: {}", handlers.keySet());
+    }
+
+    public MessageHandlerRegistry(Map<String, MessageHandler> handlers, MessageHandler defaultHandler) {
+        this.handlers = Map.copyOf(handlers);
+        this.defaultHandler = defaultHandler;
+    }
+
+    public MessageHandler get(final String eventName) {
+        if (eventName == null) {
+            return defaultHandler;
+        }
+        return handlers.getOrDefault(eventName, defaultHandler);
+    }
+
+    public MessageHandler getDefaultHandler() {
+        return defaultHandler;
+    }
+}
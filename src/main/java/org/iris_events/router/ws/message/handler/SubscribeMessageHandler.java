@@ -13,7 +13,6 @@ import org.iris_events.router.model.UserSession;
 import org.iris_events.router.model.sub.SubscribeInternal;
 import org.iris_events.router.service.BackendService;
 import org.iris_events.router.service.WebsocketRegistry;
-import org.iris_events.common.ErrorType;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
@@ -35,17 +34,24 @@ public class SubscribeMessageHandler implements MessageHandler {
     @Inject
     BackendService backendService;
 
+    /**
+     * Login parses and verifies JWT, which may fetch JWKS.
+     */
+    @Override
+    public boolean isBlocking() {
+        return true;
+    }
+
     @Override
     public void handle(UserSession userSession, RequestWrapper requestWrapper) {
-        final var payload = requestWrapper.payload();
-        final var subscribe = objectMapper.convertValue(payload, Subscribe.class);
+        final var subscribe = requestWrapper.readPayload(objectMapper, Subscribe.class);
         final var clientTraceId = requestWrapper.clientTraceId();
         subscribe(userSession, subscribe, clientTraceId);
     }
 
     private void subscribe(final UserSession userSession, final Subscribe subscribe, final String clientTraceId) {
         if (subscribe.getDeviceId() != null) {
-            userSession.updateDeviceId(subscribe.getDeviceId());
+            websocketRegistry.updateDeviceId(userSession, subscribe.getDeviceId());
         }
         if (subscribe.getToken() != null) {
             final var loginSucceeded = websocketRegistry.login(userSession, subscribe.getToken());
@@ -57,9 +63,7 @@ public class SubscribeMessageHandler implements MessageHandler {
                 final var identityAuthenticated = new IdentityAuthenticated(UUID.fromString(userSession.getUserId()));
                 backendService.sendInternalEvent(userSession, clientTraceId, identityAuthenticated);
             } else {
-                final var errorEvent = new ErrorEvent(ErrorType.UNAUTHORIZED, ErrorEvent.AUTHORIZATION_FAILED_CLIENT_CODE,
-                        "authorization failed");
-                userSession.sendEvent(errorEvent, clientTraceId);
+                userSession.sendEvent(ErrorEvent.AUTHORIZATION_FAILED, clientTraceId);
                 // when token is present, login must succeed
                 return;
             }
@@ -87,6 +91,7 @@ public class SubscribeMessageHandler implements MessageHandler {
             var resourceId = subscription.resourceId();
             var resourceType = subscription.resourceType();
 
+            websocketRegistry.subscribe(userSession, resourceType, resourceId);
             final var resourceSubscriptionInternalEvent = new SubscribeInternal(resourceType, resourceId);
             backendService.sendInternalEvent(userSession, clientTraceId, resourceSubscriptionInternalEvent);
         });
@@ -0,0 +1,48 @@
+package org.iris_events.router.ws.message.handler;
+
+import static org.iris_events.router.ws.message.handler.UnsubscribeMessageHandler.EVENT_NAME;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.iris_events.router.model.RequestWrapper;
+import org.iris_events.router.model.UserSession;
+import org.iris_events.router.model.sub.Unsubscribe;
+import org.iris_events.router.model.sub.UnsubscribeInternal;
+import org.iris_events.router.service.BackendService;
+import org.iris_events.router.service.WebsocketRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+/**
+ * Removes resource subscriptions of the session from router resource index and lets backends know.
+ */
+@ApplicationScoped
+@Named(EVENT_NAME)
+public class UnsubscribeMessageHandler implements MessageHandler {
+
+    public static final String EVENT_NAME = "unsubscribe";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    WebsocketRegistry websocketRegistry;
+
+    @Inject
+    BackendService backendService;
+
+    @Override
+    public void handle(UserSession userSession, RequestWrapper requestWrapper) {
+        final var unsubscribe = requestWrapper.readPayload(objectMapper, Unsubscribe.class);
+        if (unsubscribe.resources() == null) {
+            return;
+        }
+        final var clientTraceId = requestWrapper.clientTraceId();
+        unsubscribe.resources().forEach(resource -> {
+            websocketRegistry.unsubscribe(userSession, resource.resourceType(), resource.resourceId());
+            final var unsubscribeInternal = new UnsubscribeInternal(resource.resourceType(), resource.resourceId());
+            backendService.sendInternalEvent(userSession, clientTraceId, unsubscribeInternal);
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package org.iris_events.router.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.model.IdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Correlation id generation under contention, all threads share one generator like concurrent sessions of a router.
+ * {@code UUID} is the previous per request {@link UUID#randomUUID()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class CorrelationIdBenchmark {
+
+    @Param({ "UUID", "COUNTER", "RANDOM" })
+    RouterConfig.CorrelationIds strategy;
+
+    private IdGenerator generator;
+
+    @Setup
+    public void setup() {
+        generator = IdGenerator.of(strategy, UUID.randomUUID());
+    }
+
+    @Benchmark
+    public String next() {
+        return generator.next();
+    }
+}
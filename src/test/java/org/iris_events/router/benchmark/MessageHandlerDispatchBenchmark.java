@@ -0,0 +1,75 @@
+package org.iris_events.router.benchmark;
+
+import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.model.RequestWrapper;
+import org.iris_events.router.model.UserSession;
+import org.iris_events.router.ws.message.handler.DefaultHandler;
+import org.iris_events.router.ws.message.handler.MessageHandler;
+import org.iris_events.router.ws.message.handler.MessageHandlerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.enterprise.inject.literal.NamedLiteral;
+
+/**
+ * Per message handler lookup. {@code qualifierLookup} models the previous per frame
+ * {@code Instance.select(NamedLiteral.of(event))} resolution: a new qualifier literal for every frame, hashed and
+ * compared reflectively against registered qualifiers. Bean resolution inside the container comes on top of that.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageHandlerDispatchBenchmark {
+
+    private static final MessageHandler HANDLER = new NoopHandler();
+
+    @Param({ "subscribe", "wallet/init" })
+    String eventName;
+
+    private Map<Annotation, MessageHandler> qualifiedHandlers;
+    private MessageHandlerRegistry registry;
+
+    @Setup
+    public void setup() {
+        qualifiedHandlers = new HashMap<>();
+        qualifiedHandlers.put(NamedLiteral.of("subscribe"), HANDLER);
+        qualifiedHandlers.put(DefaultHandler.Literal.INSTANCE, HANDLER);
+        registry = new MessageHandlerRegistry(Map.of("subscribe", HANDLER), HANDLER);
+    }
+
+    @Benchmark
+    public MessageHandler qualifierLookup() {
+        final var handler = qualifiedHandlers.get(NamedLiteral.of(eventName));
+        if (handler != null) {
+            return handler;
+        }
+        return qualifiedHandlers.get(DefaultHandler.Literal.INSTANCE);
+    }
+
+    @Benchmark
+    public MessageHandler dispatchTable() {
+        return registry.get(eventName);
+    }
+
+    private static final class NoopHandler implements MessageHandler {
+        @Override
+        public void handle(UserSession userSession, RequestWrapper requestWrapper) {
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.iris_events.router.benchmark;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.model.RawMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Encoding of client frames with backend payload. {@code jsonGenerator} models the previous builder: payload decoded
+ * to a String and written through a {@link StringWriter} backed generator. {@code rawEncoder} decodes the payload
+ * once as well and appends it to a pre-sized builder, saving the generator and its writer buffer copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RawMessageEncodingBenchmark {
+
+    @Param({ "100", "10000" })
+    int payloadSize;
+
+    private ObjectMapper objectMapper;
+    private Buffer payload;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        final var json = new StringBuilder("{\"items\": [");
+        while (json.length() < payloadSize) {
+            json.append("{\"id\": ").append(json.length()).append(", \"name\": \"item\"},");
+        }
+        json.append("{}]}");
+        payload = Buffer.buffer(json.toString());
+    }
+
+    @Benchmark
+    public String jsonGenerator() throws IOException {
+        final var writer = new StringWriter();
+        final var generator = objectMapper.getFactory().createGenerator(writer);
+        generator.writeStartObject();
+        generator.writeStringField("event", "wallet/init");
+        generator.writeStringField("client_trace_id", "trace-1");
+        generator.writeFieldName("payload");
+        generator.writeRawValue(payload.toString(StandardCharsets.UTF_8));
+        generator.writeEndObject();
+        generator.close();
+        return writer.toString();
+    }
+
+    @Benchmark
+    public String rawEncoder() {
+        return RawMessage.builder(objectMapper)
+                .setEventName("wallet/init")
+                .setClientTraceId("trace-1")
+                .setPayloadFromBuffer(payload)
+                .build()
+                .getMessage();
+    }
+}
@@ -0,0 +1,68 @@
+package org.iris_events.router.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.service.ValidationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Validation cost per event type, using schemas from {@code src/test/resources/schemas}. {@code noSchema} is the cost
+ * paid by events without a schema.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchemaValidationBenchmark {
+
+    private static final Map<String, String> PAYLOADS = Map.of(
+            "subscribe", """
+                    {"resources": [{"resource_type": "inventory", "resource_id": "1"}], "token": null, "heartbeat": true}
+                    """,
+            "wallet/init", """
+                    {"wallet_id": "0d8f5f36-5a4e-4d0b-8c8a-5b0f9f0b1c2d", "currency": "EUR", "amount": 10.5, "tags": ["a", "b"]}
+                    """);
+
+    @Param({ "subscribe", "wallet/init" })
+    String eventType;
+
+    private ValidationService validationService;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        final var schemas = ValidationService.loadSchemas("classpath:schemas", List.copyOf(PAYLOADS.keySet()));
+        validationService = new ValidationService(new ObjectMapper(), schemas);
+        payload = PAYLOADS.get(eventType).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<String> validate() {
+        return validationService.validate(eventType, Buffer.buffer(Unpooled.wrappedBuffer(payload)));
+    }
+
+    @Benchmark
+    public List<String> noSchema() {
+        return validationService.validate("unknown", Buffer.buffer(Unpooled.wrappedBuffer(payload)));
+    }
+}
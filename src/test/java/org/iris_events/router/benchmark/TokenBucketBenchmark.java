@@ -0,0 +1,53 @@
+package org.iris_events.router.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.iris_events.router.model.RateLimitBuckets;
+import org.iris_events.router.model.TokenBucket;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per message rate limit check. Run with {@code -prof gc}, {@code gc.alloc.rate.norm} is expected to be 0 B/op.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBucketBenchmark {
+
+    private static final Function<String, TokenBucket> BUCKET_FACTORY = key -> new TokenBucket(100, 1_000_000);
+
+    private RateLimitBuckets sessionBuckets;
+    private TokenBucket sharedBucket;
+
+    @Setup
+    public void setup() {
+        sessionBuckets = new RateLimitBuckets();
+        sessionBuckets.get("wallet/init", BUCKET_FACTORY);
+        sharedBucket = new TokenBucket(100, 1_000_000);
+    }
+
+    @Benchmark
+    public boolean sessionCheck() {
+        return sessionBuckets.get("wallet/init", BUCKET_FACTORY).tryAcquire();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean contendedCheck() {
+        return sharedBucket.tryAcquire();
+    }
+}
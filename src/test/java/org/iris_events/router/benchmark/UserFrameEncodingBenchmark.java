@@ -0,0 +1,78 @@
+package org.iris_events.router.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.common.MessagingHeaders;
+import org.iris_events.router.model.AmqpMessage;
+import org.iris_events.router.model.RawMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.AMQP;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Encoding cost of delivering one backend message to all sessions of a user. {@code perSession} models the previous
+ * {@code UserSession.sendMessage} per session, {@code shared} encodes the frame once and hands it to every session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserFrameEncodingBenchmark {
+
+    @Param({ "1", "5", "20" })
+    int sessions;
+
+    private ObjectMapper objectMapper;
+    private AmqpMessage message;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        final var payload = new StringBuilder("{\"wallet_id\": \"0d8f5f36-5a4e-4d0b-8c8a-5b0f9f0b1c2d\", \"balances\": [");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                payload.append(", ");
+            }
+            payload.append("{\"currency\": \"EUR\", \"amount\": ").append(i * 100.5).append(", \"pending\": false}");
+        }
+        payload.append("]}");
+        final Map<String, Object> headers = new HashMap<>();
+        headers.put(MessagingHeaders.Message.USER_ID, "0d8f5f36-5a4e-4d0b-8c8a-5b0f9f0b1c2d");
+        headers.put(MessagingHeaders.Message.CLIENT_TRACE_ID, "trace-1");
+        final var properties = new AMQP.BasicProperties().builder().headers(headers).build();
+        message = new AmqpMessage(Buffer.buffer(payload.toString()), properties, "wallet/balance-changed");
+    }
+
+    @Benchmark
+    public void perSession(Blackhole blackhole) {
+        for (int i = 0; i < sessions; i++) {
+            blackhole.consume(RawMessage.of(objectMapper, message).getMessage());
+        }
+    }
+
+    @Benchmark
+    public void shared(Blackhole blackhole) {
+        final var rawMessage = RawMessage.of(objectMapper, message);
+        for (int i = 0; i < sessions; i++) {
+            blackhole.consume(rawMessage.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.iris_events.router.logging;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+import org.iris_events.common.MDCProperties;
+import org.jboss.logmanager.ExtLogRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class LogContextFilterTest {
+
+    private final LogContextFilter filter = new LogContextFilter();
+
+    @AfterEach
+    void tearDown() {
+        LogContext.clear();
+    }
+
+    @Test
+    void copiesContextToRecord() {
+        LogContext.current()
+                .session("session-1")
+                .headers(Map.of("User-Agent", List.of("test")))
+                .request("wallet/init", "trace-1");
+        final var record = new ExtLogRecord(Level.INFO, "message", LogContextFilterTest.class.getName());
+
+        assertThat(filter.isLoggable(record), is(true));
+
+        assertThat(record.getMdc(MDCProperties.SESSION_ID), is("session-1"));
+        assertThat(record.getMdc(MDCProperties.EVENT_TYPE), is("wallet/init"));
+        assertThat(record.getMdc(MDCProperties.CLIENT_TRACE_ID), is("trace-1"));
+        assertThat(record.getMdc("header.User-Agent"), is("[test]"));
+    }
+
+    @Test
+    void clearedContext() {
+        LogContext.current().session("session-1").request("wallet/init", null);
+        LogContext.clear();
+        final var record = new ExtLogRecord(Level.INFO, "message", LogContextFilterTest.class.getName());
+
+        filter.isLoggable(record);
+
+        assertThat(record.getMdc(MDCProperties.SESSION_ID), is(nullValue()));
+        assertThat(record.getMdcCopy(), is(anEmptyMap()));
+    }
+}
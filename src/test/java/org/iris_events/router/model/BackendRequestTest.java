@@ -0,0 +1,24 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.buffer.Buffer;
+
+class BackendRequestTest {
+
+    @Test
+    void bodyPreviewKeepsMultibyteCharacters() {
+        // 'ž' is two bytes, the 400 byte cut falls in the middle of the last one
+        final var body = Buffer.buffer("x" + "ž".repeat(300));
+
+        assertThat(BackendRequest.bodyPreview(body), is("x" + "ž".repeat(199) + "..."));
+    }
+
+    @Test
+    void bodyPreviewOfShortBody() {
+        assertThat(BackendRequest.bodyPreview(Buffer.buffer("{\"name\": \"Tomaž\"}")), is("{\"name\": \"Tomaž\"}"));
+    }
+}
@@ -0,0 +1,62 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class IdGeneratorTest {
+
+    @Test
+    void counterIdsAreUniqueAcrossThreads() {
+        final var generator = IdGenerator.counter(UUID.randomUUID());
+        final var ids = ConcurrentHashMap.<String> newKeySet();
+
+        IntStream.range(0, 100_000).parallel().forEach(i -> ids.add(generator.next()));
+
+        assertThat(ids.size(), is(100_000));
+    }
+
+    @Test
+    void counterIdsArePrefixedWithRouterId() {
+        final var routerId = UUID.randomUUID();
+        final var first = IdGenerator.counter(routerId).next();
+        final var prefix = first.substring(0, first.indexOf('.') + 1);
+
+        assertThat(IdGenerator.counter(routerId).next(), startsWith(prefix));
+        assertThat(IdGenerator.counter(UUID.randomUUID()).next(), not(startsWith(prefix)));
+    }
+
+    @Test
+    void randomIds() {
+        final var generator = IdGenerator.random();
+        final var ids = new HashSet<String>();
+
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.next());
+        }
+
+        assertThat(ids.size(), is(10_000));
+    }
+
+    @Test
+    void randomIdsHaveFixedWidthHalves() {
+        final var generator = IdGenerator.random();
+
+        for (int i = 0; i < 1_000; i++) {
+            final var id = generator.next();
+            assertThat(id.length(), is(26));
+            // both halves decode as full 64 bit values, so the split between them is unambiguous
+            Long.parseUnsignedLong(id.substring(0, 13), Character.MAX_RADIX);
+            Long.parseUnsignedLong(id.substring(13), Character.MAX_RADIX);
+        }
+        assertThat(Long.toUnsignedString(-1L, Character.MAX_RADIX).length(), is(IdGenerator.BASE36_LONG_DIGITS));
+    }
+}
@@ -0,0 +1,67 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.rabbitmq.client.AMQP;
+
+class LayeredHeadersTest {
+
+    private final Map<String, Object> template = Map.of("x-session-id", "s1", "x-user-id", "u1");
+
+    @Test
+    void readsThroughTemplate() {
+        final var headers = new LayeredHeaders(template).with("x-event-type", "wallet/init");
+
+        assertThat(headers.get("x-event-type"), is("wallet/init"));
+        assertThat(headers.get("x-session-id"), is("s1"));
+        assertThat(headers.get("unknown"), is(nullValue()));
+        assertThat(headers.size(), is(3));
+        assertThat(new HashMap<>(headers), is(Map.of("x-event-type", "wallet/init", "x-session-id", "s1", "x-user-id", "u1")));
+    }
+
+    @Test
+    void messageHeaderOverridesTemplate() {
+        final var headers = new LayeredHeaders(template).with("x-user-id", "u2").with("x-user-id", "u3");
+
+        assertThat(headers.get("x-user-id"), is("u3"));
+        assertThat(headers.size(), is(2));
+        assertThat(new LinkedHashMap<>(headers), is(Map.of("x-user-id", "u3", "x-session-id", "s1")));
+    }
+
+    @Test
+    void withChangesInstance() {
+        final var headers = new LayeredHeaders(template);
+
+        assertThat(headers.with("x-event-type", "wallet/init"), is(sameInstance(headers)));
+        assertThat(headers.get("x-event-type"), is("wallet/init"));
+    }
+
+    @Test
+    void basicPropertiesCopyHeadersOnce() {
+        final var headers = new LayeredHeaders(template).with("x-event-type", "wallet/init");
+
+        final var properties = new AMQP.BasicProperties.Builder().headers(headers).build();
+
+        assertThat(properties.getHeaders(), is(not(sameInstance(headers))));
+        assertThat(properties.getHeaders(), is(Map.of("x-event-type", "wallet/init", "x-session-id", "s1", "x-user-id", "u1")));
+    }
+
+    @Test
+    void mapMutatorsAreUnsupported() {
+        final var headers = new LayeredHeaders(template).with("x-event-type", "wallet/init");
+
+        assertThrows(UnsupportedOperationException.class, () -> headers.put("x-event-type", "other"));
+        assertThrows(UnsupportedOperationException.class, () -> headers.entrySet().iterator().next().setValue("other"));
+    }
+}
@@ -0,0 +1,333 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.service.RouterMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+class OutboundQueueTest {
+
+    private Session session;
+    private RemoteEndpoint.Async remote;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        session = mock(Session.class);
+        remote = mock(RemoteEndpoint.Async.class);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void writesOneFrameAtATime() {
+        final var queue = queue(RouterConfig.OverflowPolicy.DROP_NEW);
+
+        queue.send("a");
+        queue.send("b");
+        queue.send("c");
+
+        final var handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(eq("a"), handler.capture());
+        verify(remote, never()).sendText(eq("b"), any());
+        assertThat(queue.size(), is(2));
+
+        handler.getValue().onResult(new SendResult());
+        verify(remote).sendText(eq("b"), any());
+        handler.getValue().onResult(new SendResult());
+        verify(remote).sendText(eq("c"), any());
+        handler.getValue().onResult(new SendResult());
+        assertThat(queue.size(), is(0));
+
+        queue.send("d");
+        verify(remote).sendText(eq("d"), any());
+    }
+
+    @Test
+    void synchronousCompletionDoesNotRecurse() {
+        final var queue = new OutboundQueue(session, new Outbound(1000, 100_000, RouterConfig.OverflowPolicy.DROP_NEW),
+                new RouterMetrics(meterRegistry));
+        queue.send("first");
+        final var handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(eq("first"), handler.capture());
+        for (int i = 0; i < 500; i++) {
+            queue.send("frame-" + i);
+        }
+
+        final var stackDepths = new ArrayList<Integer>();
+        doAnswer(invocation -> {
+            stackDepths.add(Thread.currentThread().getStackTrace().length);
+            invocation.<SendHandler> getArgument(1).onResult(new SendResult());
+            return null;
+        }).when(remote).sendText(anyString(), any(SendHandler.class));
+        handler.getValue().onResult(new SendResult());
+
+        assertThat(stackDepths.size(), is(500));
+        assertThat(stackDepths.get(499), is(stackDepths.get(0)));
+        assertThat(queue.size(), is(0));
+
+        queue.send("last");
+        assertThat(stackDepths.size(), is(501));
+    }
+
+    @Test
+    void dropNew() {
+        final var queue = queue(RouterConfig.OverflowPolicy.DROP_NEW);
+
+        List.of("a", "b", "c", "d").forEach(queue::send);
+
+        assertThat(queue.size(), is(2));
+        assertThat(overflows("drop_new"), is(1.0));
+        drain();
+        verify(remote, never()).sendText(eq("d"), any());
+    }
+
+    @Test
+    void dropOldest() {
+        final var queue = queue(RouterConfig.OverflowPolicy.DROP_OLDEST);
+
+        List.of("a", "b", "c", "d").forEach(queue::send);
+
+        assertThat(queue.size(), is(2));
+        assertThat(overflows("drop_oldest"), is(1.0));
+        drain();
+        verify(remote, never()).sendText(eq("b"), any());
+        verify(remote).sendText(eq("d"), any());
+    }
+
+    @Test
+    void dropOldestByLength() {
+        final var queue = new OutboundQueue(session, new Outbound(10, 6, RouterConfig.OverflowPolicy.DROP_OLDEST),
+                new RouterMetrics(meterRegistry));
+
+        List.of("a", "bbb", "ccc", "dd").forEach(queue::send);
+
+        assertThat(queue.size(), is(2));
+        drain();
+        verify(remote, never()).sendText(eq("bbb"), any());
+    }
+
+    @Test
+    void limitsUtf8Bytes() {
+        final var queue = new OutboundQueue(session, new Outbound(10, 6, RouterConfig.OverflowPolicy.DROP_NEW),
+                new RouterMetrics(meterRegistry));
+
+        queue.send("a");
+        queue.send(new RawMessage("\"ž\""));
+        queue.send(new RawMessage("\"ž\""));
+
+        assertThat(queue.size(), is(1));
+        assertThat(overflows("drop_new"), is(1.0));
+    }
+
+    @Test
+    void close() throws IOException {
+        final var queue = queue(RouterConfig.OverflowPolicy.CLOSE);
+
+        List.of("a", "b", "c", "d", "e").forEach(queue::send);
+
+        final var closeReason = ArgumentCaptor.forClass(CloseReason.class);
+        verify(session).close(closeReason.capture());
+        assertThat(closeReason.getValue().getCloseCode().getCode(), is(1013));
+        assertThat(overflows("close"), is(1.0));
+        assertThat(queue.size(), is(0));
+        verify(remote, times(1)).sendText(anyString(), any());
+    }
+
+    @Test
+    void failedWriteDiscardsQueue() {
+        final var queue = queue(RouterConfig.OverflowPolicy.DROP_NEW);
+        queue.send("a");
+        queue.send("b");
+
+        final var handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(eq("a"), handler.capture());
+        handler.getValue().onResult(new SendResult(new IOException("broken pipe")));
+        queue.send("c");
+
+        assertThat(queue.size(), is(0));
+        verify(remote, times(1)).sendText(anyString(), any());
+    }
+
+    @Test
+    void conflate() {
+        final var queue = queue(RouterConfig.OverflowPolicy.DROP_NEW);
+
+        queue.send("a");
+        queue.send("ticker-1", "wallet/ticker\nEUR");
+        queue.send("b");
+        queue.send("ticker-2", "wallet/ticker\nEUR");
+
+        assertThat(queue.size(), is(2));
+        assertThat(meterRegistry.get("iris.router.outbound.conflated").counter().count(), is(1.0));
+        drain();
+        verify(remote, never()).sendText(eq("ticker-1"), any());
+        final var inOrder = inOrder(remote);
+        inOrder.verify(remote).sendText(eq("ticker-2"), any());
+        inOrder.verify(remote).sendText(eq("b"), any());
+    }
+
+    @Test
+    void conflateRespectsMaxLength() {
+        final var queue = new OutboundQueue(session, new Outbound(10, 10, RouterConfig.OverflowPolicy.DROP_OLDEST),
+                new RouterMetrics(meterRegistry));
+
+        queue.send("a");
+        queue.send("ticker-1", "wallet/ticker");
+        queue.send("bb");
+        queue.send("ticker-22", "wallet/ticker");
+
+        assertThat(queue.size(), is(1));
+        assertThat(overflows("drop_oldest"), is(1.0));
+        drain();
+        verify(remote, never()).sendText(eq("ticker-1"), any());
+        verify(remote, never()).sendText(eq("bb"), any());
+        verify(remote).sendText(eq("ticker-22"), any());
+    }
+
+    @Test
+    void conflateOverMaxLengthDropsNew() {
+        final var queue = new OutboundQueue(session, new Outbound(10, 10, RouterConfig.OverflowPolicy.DROP_NEW),
+                new RouterMetrics(meterRegistry));
+
+        queue.send("a");
+        queue.send("ticker-1", "wallet/ticker");
+        queue.send("bb");
+        queue.send("ticker-22", "wallet/ticker");
+
+        assertThat(queue.size(), is(2));
+        assertThat(overflows("drop_new"), is(1.0));
+        drain();
+        verify(remote).sendText(eq("ticker-1"), any());
+        verify(remote, never()).sendText(eq("ticker-22"), any());
+    }
+
+    @Test
+    void conflateOverMaxLengthCloses() throws IOException {
+        final var queue = new OutboundQueue(session, new Outbound(10, 10, RouterConfig.OverflowPolicy.CLOSE),
+                new RouterMetrics(meterRegistry));
+
+        queue.send("a");
+        queue.send("ticker-1", "wallet/ticker");
+        queue.send("bb");
+        queue.send("ticker-22", "wallet/ticker");
+
+        verify(session).close(any(CloseReason.class));
+        assertThat(queue.size(), is(0));
+    }
+
+    @Test
+    void conflateOnlyPendingFrames() {
+        final var queue = queue(RouterConfig.OverflowPolicy.DROP_NEW);
+
+        queue.send("ticker-1", "wallet/ticker");
+        queue.send("ticker-2", "wallet/ticker");
+
+        verify(remote).sendText(eq("ticker-1"), any());
+        assertThat(queue.size(), is(1));
+    }
+
+    @Test
+    void coalesceWithinDelay() {
+        final var scheduler = mock(ScheduledExecutorService.class);
+        final var queue = new OutboundQueue(session, new Outbound(10, 1000, RouterConfig.OverflowPolicy.DROP_NEW),
+                new RouterMetrics(meterRegistry), scheduler);
+
+        queue.send("{\"a\":1}");
+        queue.send("{\"b\":2}");
+
+        verify(remote, never()).sendText(anyString(), any());
+        final var flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(flush.capture(), eq(Duration.ofMillis(5).toNanos()), eq(TimeUnit.NANOSECONDS));
+
+        flush.getValue().run();
+        verify(remote).sendText(eq("[{\"a\":1},{\"b\":2}]"), any());
+    }
+
+    @Test
+    void coalesceUpToBatchSize() {
+        final var scheduler = mock(ScheduledExecutorService.class);
+        final var queue = new OutboundQueue(session, new Outbound(10, 1000, RouterConfig.OverflowPolicy.DROP_NEW),
+                new RouterMetrics(meterRegistry), scheduler);
+
+        List.of("1", "2", "3", "4", "5").forEach(queue::send);
+
+        final var handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(eq("[1,2,3]"), handler.capture());
+        verify(scheduler, times(1)).schedule(any(Runnable.class), anyLong(), any());
+
+        handler.getValue().onResult(new SendResult());
+        verify(remote).sendText(eq("[4,5]"), any());
+    }
+
+    private OutboundQueue queue(final RouterConfig.OverflowPolicy policy) {
+        return new OutboundQueue(session, new Outbound(2, 1000, policy), new RouterMetrics(meterRegistry));
+    }
+
+    private void drain() {
+        final var handler = ArgumentCaptor.forClass(SendHandler.class);
+        for (int i = 0; i < 10; i++) {
+            verify(remote, atLeastOnce()).sendText(anyString(), handler.capture());
+            handler.getValue().onResult(new SendResult());
+        }
+    }
+
+    private double overflows(final String policy) {
+        return meterRegistry.get("iris.router.outbound.overflows").tag("policy", policy).counter().count();
+    }
+
+    private record Outbound(int maxMessages, long maxBytes, RouterConfig.OverflowPolicy overflowPolicy)
+            implements RouterConfig.Outbound {
+        @Override
+        public int closeCode() {
+            return 1013;
+        }
+
+        @Override
+        public List<String> conflateEvents() {
+            return List.of();
+        }
+
+        @Override
+        public RouterConfig.Coalescing coalescing() {
+            return new Coalescing(Duration.ofMillis(5), 3);
+        }
+    }
+
+    private record Coalescing(Duration maxDelay, int maxBatchSize) implements RouterConfig.Coalescing {
+        @Override
+        public boolean enabled() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.nio.charset.StandardCharsets;
+
+import org.iris_events.common.ErrorType;
+import org.iris_events.router.events.ErrorEvent;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.vertx.core.buffer.Buffer;
+
+class RawMessageTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void bufferPayload() {
+        final var rawMessage = RawMessage.builder(objectMapper)
+                .setEventName("wallet/init")
+                .setClientTraceId("trace-\"1\"")
+                .setSubscriptionId("sub-1")
+                .setPayloadFromBuffer(Buffer.buffer("{\"name\": \"Tomaž\"}"))
+                .build();
+
+        assertThat(rawMessage.getMessage(), is("""
+                {"event":"wallet/init","client_trace_id":"trace-\\"1\\"","subscription_id":"sub-1","payload":{"name": "Tomaž"}}"""));
+        assertThat(rawMessage.getByteLength(), is(rawMessage.getMessage().getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    void byteLength() {
+        final var rawMessage = RawMessage.builder(objectMapper)
+                .setEventName("dogodek/č")
+                .setClientTraceId("sled-\uD83D\uDE00")
+                .build();
+
+        assertThat(rawMessage.getByteLength(), is(rawMessage.getMessage().getBytes(StandardCharsets.UTF_8).length));
+        assertThat(new RawMessage("žž").getByteLength(), is(4));
+    }
+
+    @Test
+    void slicedBufferPayload() {
+        final var body = Buffer.buffer("ignored{\"id\": 1}ignored");
+        final var rawMessage = RawMessage.builder(objectMapper)
+                .setEventName("test")
+                .setPayloadFromBuffer(body.slice(7, 16))
+                .build();
+
+        assertThat(rawMessage.getMessage(), is("{\"event\":\"test\",\"payload\":{\"id\": 1}}"));
+    }
+
+    @Test
+    void eventPayload() throws JsonProcessingException {
+        final var errorEvent = new ErrorEvent(ErrorType.UNAUTHORIZED, ErrorEvent.TOKEN_EXPIRED_CLIENT_CODE, "expired");
+        final var rawMessage = RawMessage.builder(objectMapper)
+                .setEventName(ErrorEvent.NAME)
+                .setPayloadFromEvent(errorEvent)
+                .build();
+
+        assertThat(rawMessage.getMessage(), is("{\"event\":\"" + ErrorEvent.NAME + "\",\"payload\":"
+                + objectMapper.writeValueAsString(errorEvent) + "}"));
+    }
+
+    @Test
+    void withoutPayload() {
+        final var rawMessage = RawMessage.builder(objectMapper).setEventName("test").build();
+
+        assertThat(rawMessage.getMessage(), is("{\"event\":\"test\"}"));
+    }
+}
@@ -0,0 +1,54 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.nio.charset.StandardCharsets;
+
+import org.iris_events.common.ErrorType;
+import org.iris_events.router.events.ErrorEvent;
+import org.iris_events.router.events.HeartBeatEvent;
+import org.iris_events.router.events.RouterEvent;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class RouterFramesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final RouterFrames routerFrames = new RouterFrames(objectMapper);
+
+    @Test
+    void matchesEncodedEvent() {
+        final var event = new ErrorEvent(ErrorType.BAD_PAYLOAD, ErrorEvent.EVENT_MISSING_CLIENT_CODE, "'event' missing");
+
+        final var frame = routerFrames.get(event);
+
+        assertThat(frame.withClientTraceId(null).getMessage(), is(encode(event, null)));
+        assertThat(frame.withClientTraceId("trace-\"1\"").getMessage(), is(encode(event, "trace-\"1\"")));
+        final var withTraceId = frame.withClientTraceId("sled-č");
+        assertThat(withTraceId.getByteLength(), is(withTraceId.getMessage().getBytes(StandardCharsets.UTF_8).length));
+    }
+
+    @Test
+    void heartbeat() {
+        assertThat(routerFrames.heartbeat().getMessage(), is(encode(new HeartBeatEvent(), null)));
+        assertThat(routerFrames.heartbeat(), sameInstance(routerFrames.heartbeat()));
+    }
+
+    @Test
+    void notCached() {
+        assertThat(routerFrames.get(new ErrorEvent(ErrorType.BAD_PAYLOAD, "OTHER", "other")), is(nullValue()));
+    }
+
+    private String encode(final RouterEvent event, final String clientTraceId) {
+        return RawMessage.builder(objectMapper)
+                .setEventName(event.getName())
+                .setClientTraceId(clientTraceId)
+                .setPayloadFromEvent(event)
+                .build()
+                .getMessage();
+    }
+}
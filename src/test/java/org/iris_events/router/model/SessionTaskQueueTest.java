@@ -0,0 +1,101 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class SessionTaskQueueTest {
+
+    @Test
+    void runsTasksInOrder() throws InterruptedException {
+        final var taskQueue = new SessionTaskQueue();
+        final var completed = Collections.synchronizedList(new ArrayList<Integer>());
+        final var done = new CountDownLatch(100);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100; i++) {
+                final var task = i;
+                taskQueue.submit(() -> {
+                    if (task % 10 == 0) {
+                        Thread.yield();
+                    }
+                    completed.add(task);
+                    done.countDown();
+                }, executor);
+            }
+            assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        }
+
+        assertThat(completed, is(IntStream.range(0, 100).boxed().toList()));
+        assertThat(taskQueue.isIdle(), is(true));
+    }
+
+    @Test
+    void busyWhileTaskRuns() throws InterruptedException {
+        final var taskQueue = new SessionTaskQueue();
+        final var release = new CountDownLatch(1);
+        final List<Boolean> idle = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            taskQueue.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, executor);
+            idle.add(taskQueue.isIdle());
+            release.countDown();
+        }
+
+        assertThat(idle, is(List.of(false)));
+        assertThat(taskQueue.isIdle(), is(true));
+    }
+
+    @Test
+    void failedTaskDoesNotStopQueue() throws InterruptedException {
+        final var taskQueue = new SessionTaskQueue();
+        final var done = new CountDownLatch(1);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            taskQueue.submit(() -> {
+                throw new IllegalStateException("test");
+            }, executor);
+            taskQueue.submit(done::countDown, executor);
+            assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+        }
+    }
+
+    @Test
+    void closeSkipsQueuedTasks() throws InterruptedException {
+        final var taskQueue = new SessionTaskQueue();
+        final var started = new CountDownLatch(1);
+        final var release = new CountDownLatch(1);
+        final var completed = Collections.synchronizedList(new ArrayList<Integer>());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            taskQueue.submit(() -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                completed.add(1);
+            }, executor);
+            taskQueue.submit(() -> completed.add(2), executor);
+            assertThat(started.await(5, TimeUnit.SECONDS), is(true));
+            taskQueue.close();
+            taskQueue.submit(() -> completed.add(3), executor);
+            release.countDown();
+        }
+
+        assertThat(completed, is(List.of(1)));
+        assertThat(taskQueue.isIdle(), is(true));
+    }
+}
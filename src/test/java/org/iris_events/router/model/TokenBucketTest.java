@@ -0,0 +1,44 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    @Test
+    void burst() {
+        final var now = 1_000L;
+        final var bucket = new TokenBucket(3, 1, now);
+
+        assertThat(bucket.tryAcquire(now), is(true));
+        assertThat(bucket.tryAcquire(now), is(true));
+        assertThat(bucket.tryAcquire(now), is(true));
+        assertThat(bucket.tryAcquire(now), is(false));
+    }
+
+    @Test
+    void refill() {
+        final var now = -5_000L;
+        final var bucket = new TokenBucket(1, 10, now);
+
+        assertThat(bucket.tryAcquire(now), is(true));
+        assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(50)), is(false));
+        assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100)), is(true));
+        assertThat(bucket.isIdle(now + TimeUnit.MILLISECONDS.toNanos(200)), is(true));
+    }
+
+    @Test
+    void release() {
+        final var now = 0L;
+        final var bucket = new TokenBucket(1, 1, now);
+
+        assertThat(bucket.tryAcquire(now), is(true));
+        bucket.release();
+        assertThat(bucket.tryAcquire(now), is(true));
+        assertThat(bucket.tryAcquire(now), is(false));
+    }
+}
@@ -0,0 +1,39 @@
+package org.iris_events.router.model;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+
+class UserSessionsTest {
+
+    private final UserSession first = mock(UserSession.class);
+    private final UserSession second = mock(UserSession.class);
+    private final UserSession third = mock(UserSession.class);
+
+    @Test
+    void addAndRemove() {
+        final var sessions = UserSessions.of(first).with(second).with(third);
+
+        assertThat(sessions, contains(first, second, third));
+        assertThat(sessions.without(second), contains(first, third));
+        assertThat(sessions, contains(first, second, third));
+    }
+
+    @Test
+    void addExisting() {
+        final var sessions = UserSessions.of(first);
+
+        assertThat(sessions.with(first), sameInstance(sessions));
+        assertThat(sessions.without(second), sameInstance(sessions));
+    }
+
+    @Test
+    void removeLast() {
+        assertThat(UserSessions.of(first).without(first), is(nullValue()));
+    }
+}
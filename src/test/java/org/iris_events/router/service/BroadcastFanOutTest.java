@@ -0,0 +1,126 @@
+package org.iris_events.router.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.model.UserSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+
+class BroadcastFanOutTest {
+
+    private final Vertx vertx = Vertx.vertx();
+    private final BroadcastFanOut fanOut = new BroadcastFanOut(2);
+
+    @AfterEach
+    void close() {
+        vertx.close();
+    }
+
+    @Test
+    void writesOnOwningEventLoop() throws InterruptedException {
+        final var contexts = List.of(vertx.getOrCreateContext(), vertx.getOrCreateContext());
+        final var sessions = new ArrayList<UserSession>();
+        for (int i = 0; i < 10; i++) {
+            final var userSession = session(contexts.get(i % 2));
+            sessions.add(userSession);
+            fanOut.add(userSession);
+        }
+        final var unowned = session(null);
+        fanOut.add(unowned);
+        fanOut.remove(sessions.removeLast());
+
+        final var latch = new CountDownLatch(10);
+        final Map<UserSession, Context> visited = new ConcurrentHashMap<>();
+        fanOut.dispatch(userSession -> {
+            visited.put(userSession, userSession == unowned ? contexts.getFirst() : Vertx.currentContext());
+            latch.countDown();
+        });
+
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(visited.size(), is(10));
+        for (UserSession userSession : sessions) {
+            assertThat(visited.get(userSession), is(userSession.getIoContext()));
+        }
+    }
+
+    @Test
+    void removeAfterLogin() throws Exception {
+        final var context = vertx.getOrCreateContext();
+        final var created = new CompletableFuture<UserSession>();
+        context.runOnContext(v -> created.complete(TestSessions.userSession()));
+        final var userSession = created.get(5, TimeUnit.SECONDS);
+        final var unowned = TestSessions.userSession();
+        fanOut.add(userSession);
+        fanOut.add(unowned);
+
+        userSession.login(TestSessions.token("user", Instant.now().plusSeconds(3600)));
+        unowned.login(TestSessions.token("other", Instant.now().plusSeconds(3600)));
+        fanOut.remove(userSession);
+        fanOut.remove(unowned);
+
+        final List<UserSession> visited = new ArrayList<>();
+        fanOut.dispatch(visited::add);
+        final var done = new CompletableFuture<Void>();
+        context.runOnContext(v -> done.complete(null));
+        done.get(5, TimeUnit.SECONDS);
+
+        assertThat(visited, is(List.of()));
+    }
+
+    @Test
+    void sendRunsAfterEarlierBroadcast() throws InterruptedException {
+        final var context = vertx.getOrCreateContext();
+        final var sessions = new ArrayList<UserSession>();
+        for (int i = 0; i < 5; i++) {
+            final var userSession = session(context);
+            sessions.add(userSession);
+            fanOut.add(userSession);
+        }
+        final var unowned = session(null);
+        fanOut.add(unowned);
+
+        final List<String> written = Collections.synchronizedList(new ArrayList<>());
+        final var latch = new CountDownLatch(sessions.size() + 3);
+        fanOut.dispatch(userSession -> {
+            written.add(userSession.getId() + ":broadcast");
+            latch.countDown();
+        });
+        for (UserSession userSession : List.of(sessions.getFirst(), sessions.getLast(), unowned)) {
+            fanOut.send(userSession, target -> {
+                written.add(target.getId() + ":user");
+                latch.countDown();
+            });
+        }
+
+        assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+        for (UserSession userSession : List.of(sessions.getFirst(), sessions.getLast(), unowned)) {
+            assertThat(written.indexOf(userSession.getId() + ":broadcast"),
+                    lessThan(written.indexOf(userSession.getId() + ":user")));
+        }
+    }
+
+    private static UserSession session(final Context context) {
+        final var userSession = mock(UserSession.class);
+        when(userSession.getId()).thenReturn(UUID.randomUUID().toString());
+        when(userSession.getIoContext()).thenReturn(context);
+        return userSession;
+    }
+}
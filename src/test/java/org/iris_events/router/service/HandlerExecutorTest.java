@@ -0,0 +1,61 @@
+package org.iris_events.router.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.model.SessionTaskQueue;
+import org.iris_events.router.model.UserSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class HandlerExecutorTest {
+
+    private HandlerExecutor handlerExecutor;
+    private UserSession userSession;
+
+    @BeforeEach
+    void setUp() {
+        final var config = mock(RouterConfig.class);
+        when(config.handlerExecution()).thenReturn(RouterConfig.HandlerExecution.VIRTUAL_THREAD);
+        handlerExecutor = new HandlerExecutor(config);
+        userSession = mock(UserSession.class);
+        when(userSession.getTaskQueue()).thenReturn(new SessionTaskQueue());
+    }
+
+    @AfterEach
+    void tearDown() {
+        handlerExecutor.shutdown();
+    }
+
+    @Test
+    void queuedFailureIsPassedBack() throws Exception {
+        final var failure = new CompletableFuture<RuntimeException>();
+
+        handlerExecutor.execute(userSession, true, () -> {
+            throw new IllegalStateException("test");
+        }, failure::complete);
+
+        assertThat(failure.get(5, TimeUnit.SECONDS).getMessage(), is("test"));
+    }
+
+    @Test
+    void inlineFailureIsThrown() {
+        final var thrown = new CompletableFuture<RuntimeException>();
+        try {
+            handlerExecutor.execute(userSession, false, () -> {
+                throw new IllegalStateException("test");
+            }, e -> thrown.complete(null));
+        } catch (IllegalStateException e) {
+            thrown.complete(e);
+        }
+
+        assertThat(thrown.getNow(null).getMessage(), is("test"));
+    }
+}
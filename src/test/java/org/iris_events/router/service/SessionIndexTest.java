@@ -0,0 +1,62 @@
+package org.iris_events.router.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.iris_events.router.model.UserSession;
+import org.junit.jupiter.api.Test;
+
+class SessionIndexTest {
+
+    private final SessionIndex index = new SessionIndex();
+    private final UserSession first = session("first");
+    private final UserSession second = session("second");
+
+    @Test
+    void addAndRemove() {
+        index.add("1.2.0", first);
+        index.add("1.2.0", second);
+        index.add(null, first);
+
+        assertThat(index.get("1.2.0"), containsInAnyOrder(first, second));
+
+        index.remove("1.2.0", first);
+        index.remove("1.2.0", second);
+
+        assertThat(index.get("1.2.0"), empty());
+        assertThat(index.get(null), empty());
+    }
+
+    @Test
+    void move() {
+        index.add("device-1", first);
+
+        index.move("device-1", "device-2", first);
+        index.move(null, "device-2", second);
+
+        assertThat(index.get("device-1"), empty());
+        assertThat(index.get("device-2"), containsInAnyOrder(first, second));
+    }
+
+    @Test
+    void removeAfterLogin() {
+        final var userSession = TestSessions.userSession();
+        index.add("device-1", userSession);
+
+        userSession.login(TestSessions.token("user", Instant.now().plusSeconds(3600)));
+        index.remove("device-1", userSession);
+
+        assertThat(index.get("device-1"), empty());
+    }
+
+    private static UserSession session(final String id) {
+        final var userSession = mock(UserSession.class);
+        when(userSession.getId()).thenReturn(id);
+        return userSession;
+    }
+}
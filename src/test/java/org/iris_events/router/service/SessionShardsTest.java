@@ -0,0 +1,51 @@
+package org.iris_events.router.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.iris_events.router.model.UserSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SessionShardsTest {
+
+    private SessionShards shards;
+
+    @AfterEach
+    void shutdown() {
+        shards.shutdown();
+    }
+
+    @Test
+    void roundsShardCountToPowerOfTwo() {
+        shards = new SessionShards(6, 0);
+
+        assertThat(shards.shardCount(), is(8));
+        assertThat(new SessionShards(1, 0).shardCount(), is(1));
+    }
+
+    @Test
+    void forEachVisitsEverySessionOnce() {
+        shards = new SessionShards(4, 10);
+        for (int i = 0; i < 1000; i++) {
+            final var shard = shards.forSocket(UUID.randomUUID().toString());
+            shard.sockets.put(UUID.randomUUID().toString(), mock(UserSession.class));
+            shard.size.incrementAndGet();
+        }
+        final var visited = ConcurrentHashMap.<UserSession> newKeySet();
+        final var threads = ConcurrentHashMap.<Thread> newKeySet();
+
+        shards.forEach(session -> {
+            visited.add(session);
+            threads.add(Thread.currentThread());
+        });
+
+        assertThat(shards.size(), is(1000));
+        assertThat(visited.size(), is(1000));
+        assertThat(threads.size() > 1, is(true));
+    }
+}
@@ -0,0 +1,72 @@
+package org.iris_events.router.service;
+
+import static org.iris_events.router.ws.SocketV1.IRIS_SESSION_ID_HEADER;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.iris_events.router.model.IdGenerator;
+import org.iris_events.router.model.OutboundQueue;
+import org.iris_events.router.model.RouterFrames;
+import org.iris_events.router.model.UserSession;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.websocket.Session;
+
+/**
+ * Real user sessions on top of a mocked websocket session, for tests of the registry and its indexes.
+ */
+final class TestSessions {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final RouterFrames ROUTER_FRAMES = new RouterFrames(OBJECT_MAPPER);
+
+    private TestSessions() {
+    }
+
+    static Session socket() {
+        final var session = mock(Session.class);
+        final Map<String, Object> userProperties = new HashMap<>();
+        userProperties.put(IRIS_SESSION_ID_HEADER, UUID.randomUUID().toString());
+        when(session.getUserProperties()).thenReturn(userProperties);
+        return session;
+    }
+
+    static UserSession userSession() {
+        return userSession(socket(), Map.of());
+    }
+
+    static UserSession userSession(final OutboundQueue outboundQueue) {
+        return userSession(socket(), Map.of(), outboundQueue);
+    }
+
+    static UserSession userSession(final Session session, final Map<String, List<String>> headers) {
+        return userSession(session, headers, mock(OutboundQueue.class));
+    }
+
+    static UserSession userSession(final Session session, final Map<String, List<String>> headers,
+            final OutboundQueue outboundQueue) {
+        return new UserSession(OBJECT_MAPPER, session, headers, outboundQueue, IdGenerator.uuid(), ROUTER_FRAMES);
+    }
+
+    /**
+     * @param expiresAt token expiry claim, router adds its grace period on top
+     */
+    static JsonWebToken token(final String subject, final Instant expiresAt) {
+        final var token = mock(JsonWebToken.class);
+        when(token.getSubject()).thenReturn(subject);
+        when(token.getTokenID()).thenReturn(UUID.randomUUID().toString());
+        when(token.getGroups()).thenReturn(Set.of());
+        when(token.getExpirationTime()).thenReturn(expiresAt.getEpochSecond());
+        when(token.getRawToken()).thenReturn("raw-" + subject);
+        return token;
+    }
+}
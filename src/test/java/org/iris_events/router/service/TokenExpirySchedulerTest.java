@@ -0,0 +1,91 @@
+package org.iris_events.router.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+
+import org.iris_events.router.model.OutboundQueue;
+import org.iris_events.router.model.RawMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TokenExpirySchedulerTest {
+
+    private final TokenExpiryScheduler scheduler = new TokenExpiryScheduler();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void expiresSession() {
+        final var outboundQueue = mock(OutboundQueue.class);
+        final var userSession = TestSessions.userSession(outboundQueue);
+        userSession.login(TestSessions.token("user", expiringIn(1)));
+        assertThat(userSession.isValid(), is(true));
+
+        scheduler.schedule(userSession);
+
+        verify(outboundQueue, timeout(3000)).send(any(RawMessage.class));
+        assertThat(userSession.isValid(), is(false));
+    }
+
+    @Test
+    void tokenExpiredOnLoginIsNotified() {
+        final var outboundQueue = mock(OutboundQueue.class);
+        final var userSession = TestSessions.userSession(outboundQueue);
+        userSession.login(TestSessions.token("user", expiringIn(-5)));
+        assertThat(userSession.isValid(), is(false));
+
+        scheduler.schedule(userSession);
+
+        verify(outboundQueue, timeout(3000)).send(any(RawMessage.class));
+    }
+
+    @Test
+    void refreshedTokenIsRescheduled() {
+        final var outboundQueue = mock(OutboundQueue.class);
+        final var userSession = TestSessions.userSession(outboundQueue);
+        userSession.login(TestSessions.token("user", expiringIn(1)));
+        scheduler.schedule(userSession);
+        // refreshed token without scheduling it, first expiry fires early
+        userSession.login(TestSessions.token("user", expiringIn(3)));
+        final var refreshedExpiry = userSession.getTokenExpiry();
+
+        verify(outboundQueue, timeout(5000)).send(any(RawMessage.class));
+        assertThat(userSession.isValid(), is(false));
+        assertThat(Instant.now().isBefore(refreshedExpiry), is(false));
+    }
+
+    @Test
+    void cancel() {
+        final var cancelledQueue = mock(OutboundQueue.class);
+        final var cancelled = TestSessions.userSession(cancelledQueue);
+        cancelled.login(TestSessions.token("cancelled", expiringIn(1)));
+        scheduler.schedule(cancelled);
+        scheduler.cancel(cancelled);
+        final var otherQueue = mock(OutboundQueue.class);
+        final var other = TestSessions.userSession(otherQueue);
+        other.login(TestSessions.token("other", expiringIn(1)));
+        scheduler.schedule(other);
+
+        // expiries fire in order, cancelled session would have expired before the other one
+        verify(otherQueue, timeout(3000)).send(any(RawMessage.class));
+        assertThat(cancelled.isValid(), is(true));
+        verify(cancelledQueue, never()).send(any(RawMessage.class));
+    }
+
+    /**
+     * @return expiry claim of a token that expires within given seconds, including the router grace period
+     */
+    private static Instant expiringIn(final int seconds) {
+        return Instant.now().minusSeconds(30 - seconds);
+    }
+}
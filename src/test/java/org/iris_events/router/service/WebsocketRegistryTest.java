@@ -0,0 +1,128 @@
+package org.iris_events.router.service;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.iris_events.router.client.AuthClient;
+import org.iris_events.router.config.RouterConfig;
+import org.iris_events.router.model.UserSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class WebsocketRegistryTest {
+
+    private static final Map<String, List<String>> HEADERS = Map.of("device_id", List.of("device-1"),
+            "x-client-version", List.of("1.2.0"));
+
+    private WebsocketRegistry registry;
+    private AuthClient authClient;
+
+    @BeforeEach
+    void setUp() {
+        final var config = mock(RouterConfig.class, RETURNS_DEEP_STUBS);
+        when(config.correlationIds()).thenReturn(RouterConfig.CorrelationIds.COUNTER);
+        when(config.nonRpcEvents()).thenReturn(List.of());
+        when(config.registry().shards()).thenReturn(Optional.of(4));
+        when(config.registry().fanOutBatchSize()).thenReturn(16);
+        when(config.outbound().conflateEvents()).thenReturn(List.of());
+        when(config.outbound().coalescing().enabled()).thenReturn(false);
+        when(config.outbound().coalescing().maxDelay()).thenReturn(Duration.ZERO);
+        registry = new WebsocketRegistry(mock(RequestRegistry.class), new ObjectMapper(), config,
+                new RouterMetrics(new SimpleMeterRegistry()), UUID.randomUUID());
+        authClient = mock(AuthClient.class);
+        registry.authClient = authClient;
+        registry.tokenExpiryScheduler = mock(TokenExpiryScheduler.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    @Test
+    void indexesAfterLogin() {
+        final var userSession = registry.startSession(TestSessions.socket(), HEADERS);
+        login(userSession, "user");
+
+        assertThat(registry.getDeviceSessions("device-1"), contains(userSession));
+        assertThat(registry.getClientVersionSessions("1.2.0"), contains(userSession));
+
+        assertThat(registry.removeSocket(userSession.getId()), is(userSession));
+
+        assertThat(registry.getDeviceSessions("device-1"), empty());
+        assertThat(registry.getClientVersionSessions("1.2.0"), empty());
+        assertThat(registry.hasUserSession("user"), is(false));
+    }
+
+    @Test
+    void deviceIndexAfterLoginAndDeviceChange() {
+        final var userSession = registry.startSession(TestSessions.socket(), HEADERS);
+        login(userSession, "user");
+        registry.updateDeviceId(userSession, "device-2");
+
+        assertThat(registry.getDeviceSessions("device-1"), empty());
+        assertThat(registry.getDeviceSessions("device-2"), contains(userSession));
+
+        registry.removeSocket(userSession.getId());
+
+        assertThat(registry.getDeviceSessions("device-2"), empty());
+    }
+
+    @Test
+    void resourceSessionsAfterClose() {
+        final var userSession = registry.startSession(TestSessions.socket(), HEADERS);
+        registry.subscribe(userSession, "wallet", "42");
+        login(userSession, "user");
+
+        assertThat(registry.getResourceSessions("wallet", "42"), contains(userSession));
+
+        registry.removeSocket(userSession.getId());
+
+        assertThat(registry.getResourceSessions("wallet", "42"), empty());
+    }
+
+    @Test
+    void subscribeAfterClose() {
+        final var userSession = registry.startSession(TestSessions.socket(), HEADERS);
+        registry.removeSocket(userSession.getId());
+
+        registry.subscribe(userSession, "wallet", "42");
+
+        assertThat(registry.getResourceSessions("wallet", "42"), empty());
+    }
+
+    @Test
+    void unsubscribe() {
+        final var userSession = registry.startSession(TestSessions.socket(), HEADERS);
+        registry.subscribe(userSession, "wallet", "42");
+        registry.subscribe(userSession, "wallet", "43");
+
+        registry.unsubscribe(userSession, "wallet", "42");
+
+        assertThat(registry.getResourceSessions("wallet", "42"), empty());
+        assertThat(registry.getResourceSessions("wallet", "43"), contains(userSession));
+    }
+
+    private void login(final UserSession userSession, final String userId) {
+        final var token = TestSessions.token(userId, Instant.now().plusSeconds(3600));
+        when(authClient.checkToken("token-" + userId)).thenReturn(token);
+        assertThat(registry.login(userSession, "token-" + userId), is(true));
+    }
+}
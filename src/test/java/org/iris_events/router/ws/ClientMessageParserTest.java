@@ -0,0 +1,140 @@
+package org.iris_events.router.ws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+class ClientMessageParserTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    void parse() throws IOException {
+        final var frame = """
+                {"event": "wallet/init", "payload": {"foo": {"bar": [1, 2]}, "baz": "}"}, "client_trace_id": "1234"}
+                """;
+
+        final var request = ClientMessageParser.parse(jsonFactory, frame.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(request.event(), is("wallet/init"));
+        assertThat(request.clientTraceId(), is("1234"));
+        assertThat(request.hasPayload(), is(true));
+        assertThat(request.rawPayload().toString(StandardCharsets.UTF_8), is("{\"foo\": {\"bar\": [1, 2]}, \"baz\": \"}\"}"));
+    }
+
+    @Test
+    void parseClientTraceIdAlias() throws IOException {
+        final var frame = """
+                {"clientTraceId": "1234", "unknown": [{"a": 1}], "payload": {}, "event": "test"}
+                """;
+
+        final var request = ClientMessageParser.parse(jsonFactory, frame.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(request.event(), is("test"));
+        assertThat(request.clientTraceId(), is("1234"));
+        assertThat(request.rawPayload().toString(StandardCharsets.UTF_8), is("{}"));
+    }
+
+    @Test
+    void parseMultiByteCharacters() throws IOException {
+        final var frame = """
+                {"event": "čšž", "payload": {"name": "Tomaž"}}
+                """;
+
+        final var request = ClientMessageParser.parse(jsonFactory, frame.getBytes(StandardCharsets.UTF_8));
+
+        assertThat(request.event(), is("čšž"));
+        assertThat(request.rawPayload().toString(StandardCharsets.UTF_8), is("{\"name\": \"Tomaž\"}"));
+    }
+
+    @Test
+    void parseMissingPayload() throws IOException {
+        final var request = ClientMessageParser.parse(jsonFactory, "{\"event\": \"test\", \"payload\": null}".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(request.hasPayload(), is(false));
+        assertThat(request.clientTraceId(), is(nullValue()));
+    }
+
+    @Test
+    void parseInvalidPayload() {
+        final var frame = "{\"event\": \"test\", \"payload\": [1, 2]}".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> ClientMessageParser.parse(jsonFactory, frame));
+    }
+
+    @Test
+    void parseNotObject() {
+        final var frame = "\"test\"".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> ClientMessageParser.parse(jsonFactory, frame));
+    }
+
+    @Test
+    void parseBatch() throws IOException {
+        final var frame = "[{\"event\": \"a\", \"payload\": {}}, {\"event\": \"b\", \"payload\": {}}]";
+
+        final var requests = ClientMessageParser.parseBatch(jsonFactory, frame.getBytes(StandardCharsets.UTF_8), 2);
+
+        assertThat(requests.size(), is(2));
+        assertThat(requests.get(1).event(), is("b"));
+    }
+
+    @Test
+    void parseBatchTooLarge() {
+        // parsing stops before the invalid tail of the frame
+        final var frame = "[{\"event\": \"a\", \"client_trace_id\": \"1\", \"payload\": {}}, {\"event\": \"b\"}, not json"
+                .getBytes(StandardCharsets.UTF_8);
+
+        final var e = assertThrows(BatchTooLargeException.class, () -> ClientMessageParser.parseBatch(jsonFactory, frame, 1));
+
+        assertThat(e.getClientTraceId(), is("1"));
+    }
+
+    @Test
+    void parseBinary() {
+        final var payload = "{\"foo\": \"bar\"}".getBytes(StandardCharsets.UTF_8);
+        final var frame = binaryFrame("wallet/init", "1234", payload);
+
+        final var request = ClientMessageParser.parseBinary(frame);
+
+        assertThat(request.event(), is("wallet/init"));
+        assertThat(request.clientTraceId(), is("1234"));
+        assertThat(request.rawPayload().getBytes(), is(payload));
+    }
+
+    @Test
+    void parseBinaryWithoutTraceIdAndPayload() {
+        final var request = ClientMessageParser.parseBinary(binaryFrame("test", "", new byte[0]));
+
+        assertThat(request.event(), is("test"));
+        assertThat(request.clientTraceId(), is(nullValue()));
+        assertThat(request.hasPayload(), is(false));
+    }
+
+    @Test
+    void parseBinaryTruncated() {
+        final var frame = new byte[] { 1, 10, 't', 'e' };
+
+        assertThrows(IllegalArgumentException.class, () -> ClientMessageParser.parseBinary(frame));
+    }
+
+    private static byte[] binaryFrame(String event, String clientTraceId, byte[] payload) {
+        final var eventBytes = event.getBytes(StandardCharsets.UTF_8);
+        final var traceIdBytes = clientTraceId.getBytes(StandardCharsets.UTF_8);
+        final var frame = ByteBuffer.allocate(3 + eventBytes.length + traceIdBytes.length + payload.length);
+        frame.put((byte) 1)
+                .put((byte) eventBytes.length).put(eventBytes)
+                .put((byte) traceIdBytes.length).put(traceIdBytes)
+                .put(payload);
+        return frame.array();
+    }
+}
@@ -12,15 +12,21 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
-import java.lang.annotation.Annotation;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import org.hamcrest.Matchers;
 import org.iris_events.common.ErrorType;
 import org.iris_events.common.message.ErrorMessage;
+import org.iris_events.router.config.RouterConfig;
 import org.iris_events.router.events.ErrorEvent;
 import org.iris_events.router.service.BackendService;
+import org.iris_events.router.service.HandlerExecutor;
+import org.iris_events.router.service.RateLimiter;
+import org.iris_events.router.service.RouterMetrics;
+import org.iris_events.router.service.ValidationService;
 import org.iris_events.router.service.WebsocketRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -31,12 +37,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.iris_events.router.model.RequestWrapper;
 import org.iris_events.router.model.UserSession;
-import org.iris_events.router.ws.message.handler.DefaultHandler;
 import org.iris_events.router.ws.message.handler.MessageHandler;
+import org.iris_events.router.ws.message.handler.MessageHandlerRegistry;
 import io.quarkus.test.junit.QuarkusTest;
-import jakarta.enterprise.inject.Instance;
-import jakarta.enterprise.inject.literal.NamedLiteral;
 import jakarta.inject.Inject;
+import jakarta.websocket.EndpointConfig;
 import jakarta.websocket.RemoteEndpoint;
 import jakarta.websocket.Session;
 
@@ -53,21 +58,44 @@ class SocketV1Test {
 
     BackendService backendService;
 
-    Instance<MessageHandler> messageHandlers;
+    MessageHandler typedMessageHandler;
+
+    MessageHandler defaultMessageHandler;
 
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    RouterConfig config;
+
+    @Inject
+    RateLimiter rateLimiter;
+
+    @Inject
+    RouterMetrics routerMetrics;
+
+    @Inject
+    ValidationService validationService;
+
+    @Inject
+    HandlerExecutor handlerExecutor;
+
     @BeforeEach
     void setUp() {
         socketV1 = new SocketV1();
-        messageHandlers = mock(Instance.class);
+        typedMessageHandler = mock(MessageHandler.class);
+        defaultMessageHandler = mock(MessageHandler.class);
         websocketRegistry = mock(WebsocketRegistry.class);
         backendService = mock(BackendService.class);
-        socketV1.messageHandlers = messageHandlers;
+        socketV1.messageHandlerRegistry = new MessageHandlerRegistry(Map.of("test", typedMessageHandler), defaultMessageHandler);
         socketV1.websocketRegistry = websocketRegistry;
         socketV1.backendService = backendService;
         socketV1.objectMapper = objectMapper;
+        socketV1.config = config;
+        socketV1.rateLimiter = rateLimiter;
+        socketV1.routerMetrics = routerMetrics;
+        socketV1.validationService = validationService;
+        socketV1.handlerExecutor = handlerExecutor;
     }
 
     @Test
@@ -90,11 +118,6 @@ class SocketV1Test {
         when(userSession.isValid()).thenReturn(true);
         when(websocketRegistry.getSession(sessionId)).thenReturn(userSession);
 
-        final Instance<MessageHandler> messageHandlerInstance = mock(Instance.class);
-        final var messageHandler = mock(MessageHandler.class);
-        when(messageHandlerInstance.get()).thenReturn(messageHandler);
-        when(messageHandlers.select(any(Annotation.class))).thenReturn(messageHandlerInstance);
-
         socketV1.onMessage(session, "{}");
 
         final var errorEventArgumentCaptor = ArgumentCaptor.forClass(ErrorMessage.class);
@@ -106,7 +129,41 @@ class SocketV1Test {
         assertThat(eventMissingError.code(), Matchers.is(ErrorEvent.EVENT_MISSING_CLIENT_CODE));
         assertThat(eventMissingError.message(), is("'event' missing"));
 
-        verifyNoInteractions(messageHandler);
+        verifyNoInteractions(typedMessageHandler);
+        verifyNoInteractions(defaultMessageHandler);
+    }
+
+    @Test
+    void onOpenLimitsFrameSize() {
+        socketV1.init();
+        final var session = mock(Session.class);
+        when(session.getUserProperties()).thenReturn(new HashMap<>());
+        final var endpointConfig = mock(EndpointConfig.class);
+        when(endpointConfig.getUserProperties()).thenReturn(new HashMap<>(Map.of("headers", Map.of())));
+
+        socketV1.onOpen(session, endpointConfig);
+
+        verify(session).setMaxTextMessageBufferSize(config.limits().maxFrameSize() * 4);
+        verify(session).setMaxBinaryMessageBufferSize(config.limits().maxFrameSize() * 4);
+        verify(websocketRegistry).startSession(eq(session), any());
+    }
+
+    @Test
+    void onMessageFrameTooLarge() {
+        final var sessionId = UUID.randomUUID().toString();
+        final var session = mock(Session.class);
+        when(session.getUserProperties()).thenReturn(Map.of(IRIS_SESSION_ID_HEADER, sessionId));
+        final var userSession = mock(UserSession.class);
+        when(websocketRegistry.getSession(sessionId)).thenReturn(userSession);
+
+        final var payload = "\"" + "x".repeat(config.limits().maxFrameSize()) + "\"";
+        socketV1.onMessage(session, MESSAGE_PLACEHOLDER.formatted("test", "{\"foo\": " + payload + "}"));
+
+        final var errorEventArgumentCaptor = ArgumentCaptor.forClass(ErrorMessage.class);
+        verify(userSession).sendErrorMessage(errorEventArgumentCaptor.capture(), eq(null));
+        assertThat(errorEventArgumentCaptor.getValue().code(), is(ErrorEvent.FRAME_TOO_LARGE_CLIENT_CODE));
+        verifyNoInteractions(typedMessageHandler);
+        verifyNoInteractions(backendService);
     }
 
     @Test
@@ -119,12 +176,8 @@ class SocketV1Test {
         final var userSession = mock(UserSession.class);
         when(websocketRegistry.getSession(sessionId)).thenReturn(userSession);
 
-        final Instance<MessageHandler> messageHandlerInstance = mock(Instance.class);
-        final var messageHandler = mock(MessageHandler.class);
-        when(messageHandlerInstance.get()).thenReturn(messageHandler);
-        when(messageHandlers.select(any(Annotation.class))).thenReturn(messageHandlerInstance);
         final var errorMessage = "test message";
-        doThrow(new RuntimeException(errorMessage)).when(messageHandler).handle(any(), any());
+        doThrow(new RuntimeException(errorMessage)).when(typedMessageHandler).handle(any(), any(RequestWrapper.class));
 
         final var message = MESSAGE_PLACEHOLDER.formatted("test", "{  \"foo\": \"bar\" }");
         socketV1.onMessage(session, message);
@@ -151,35 +204,40 @@ class SocketV1Test {
 
         @Test
         void typedHandler() {
-            final Instance<MessageHandler> messageHandlerInstance = mock(Instance.class);
-            final var messageHandler = mock(MessageHandler.class);
-            when(messageHandlerInstance.get()).thenReturn(messageHandler);
-            when(messageHandlerInstance.isResolvable()).thenReturn(true);
-            when(messageHandlers.select(NamedLiteral.of(event))).thenReturn(messageHandlerInstance);
-
             final var message = MESSAGE_PLACEHOLDER.formatted(event, "{}");
 
             socketV1.onMessage(session, message);
 
-            verify(messageHandler).handle(eq(userSession), any(RequestWrapper.class));
+            verify(typedMessageHandler).handle(eq(userSession), any(RequestWrapper.class));
+            verifyNoInteractions(defaultMessageHandler);
         }
 
         @Test
         void defaultHandler() {
-            final Instance<MessageHandler> typedMessageHandlerInstance = mock(Instance.class);
-            when(typedMessageHandlerInstance.isResolvable()).thenReturn(false);
-            when(messageHandlers.select(NamedLiteral.of(event))).thenReturn(typedMessageHandlerInstance);
+            final var message = MESSAGE_PLACEHOLDER.formatted("unknown", "{}");
 
-            final Instance<MessageHandler> defaultMessageHandlerInstance = mock(Instance.class);
-            final var messageHandler = mock(MessageHandler.class);
-            when(defaultMessageHandlerInstance.get()).thenReturn(messageHandler);
-            when(messageHandlers.select(new DefaultHandler.Literal())).thenReturn(defaultMessageHandlerInstance);
+            socketV1.onMessage(session, message);
 
-            final var message = MESSAGE_PLACEHOLDER.formatted(event, "{}");
+            verify(defaultMessageHandler).handle(eq(userSession), any(RequestWrapper.class));
+            verifyNoInteractions(typedMessageHandler);
+        }
+
+        @Test
+        void batch() {
+            final var message = "[%s, %s, %s]".formatted(
+                    MESSAGE_PLACEHOLDER.formatted(event, "{}"),
+                    MESSAGE_PLACEHOLDER.formatted(event, "{\"foo\": \"bar\"}"),
+                    MESSAGE_PLACEHOLDER.formatted("unknown", "{}"));
 
             socketV1.onMessage(session, message);
 
-            verify(messageHandler).handle(eq(userSession), any(RequestWrapper.class));
+            final ArgumentCaptor<List<RequestWrapper>> typedCaptor = ArgumentCaptor.forClass(List.class);
+            verify(typedMessageHandler).handle(eq(userSession), typedCaptor.capture());
+            assertThat(typedCaptor.getValue().size(), is(2));
+
+            final ArgumentCaptor<List<RequestWrapper>> defaultCaptor = ArgumentCaptor.forClass(List.class);
+            verify(defaultMessageHandler).handle(eq(userSession), defaultCaptor.capture());
+            assertThat(defaultCaptor.getValue().getFirst().event(), is("unknown"));
         }
     }
 
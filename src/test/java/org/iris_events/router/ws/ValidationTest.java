@@ -1,22 +1,69 @@
 package org.iris_events.router.ws;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.List;
+
 import org.iris_events.router.service.ValidationService;
-import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.buffer.Buffer;
 import jakarta.inject.Inject;
 
 @QuarkusTest
-@Disabled
 public class ValidationTest {
 
     @Inject
+    ObjectMapper objectMapper;
+
     ValidationService validationService;
 
+    @BeforeEach
+    void setUp() {
+        final var schemas = ValidationService.loadSchemas("classpath:schemas", List.of("subscribe", "wallet/init", "missing"));
+        validationService = new ValidationService(objectMapper, schemas);
+    }
+
+    @Test
+    public void loadSchemas() {
+        assertThat(validationService.hasSchema("subscribe"), is(true));
+        assertThat(validationService.hasSchema("wallet/init"), is(true));
+        assertThat(validationService.hasSchema("missing"), is(false));
+    }
+
     @Test
-    public void testDelivery() {
+    public void validPayload() {
+        final var payload = Buffer.buffer("""
+                {"wallet_id": "0d8f5f36-5a4e-4d0b-8c8a-5b0f9f0b1c2d", "currency": "EUR", "amount": 10.5, "tags": ["a"]}
+                """);
 
+        assertThat(validationService.validate("wallet/init", payload), is(empty()));
     }
 
+    @Test
+    public void invalidPayload() {
+        final var payload = Buffer.buffer("""
+                {"wallet_id": "0d8f5f36-5a4e-4d0b-8c8a-5b0f9f0b1c2d", "currency": "BTC", "amount": -1}
+                """);
+
+        assertThat(validationService.validate("wallet/init", payload), hasSize(2));
+    }
+
+    @Test
+    public void malformedPayload() {
+        assertThat(validationService.validate("subscribe", Buffer.buffer("{\"token\": ")), is(not(empty())));
+    }
+
+    @Test
+    public void eventWithoutSchema() {
+        assertThat(validationService.validate("unknown", Buffer.buffer("[]")), is(empty()));
+    }
 }
@@ -0,0 +1,29 @@
+package org.iris_events.router.ws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.http.HttpServerOptions;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class WebSocketCompressionCustomizerTest {
+
+    @Inject
+    WebSocketCompressionCustomizer customizer;
+
+    @Test
+    void apply() {
+        final var options = new HttpServerOptions().setWebSocketCompressionLevel(1);
+
+        customizer.apply(options);
+
+        assertThat(options.getPerMessageWebSocketCompressionSupported(), is(true));
+        assertThat(options.getPerFrameWebSocketCompressionSupported(), is(false));
+        assertThat(options.getWebSocketCompressionLevel(), is(6));
+        assertThat(options.getWebSocketAllowServerNoContext(), is(false));
+    }
+}
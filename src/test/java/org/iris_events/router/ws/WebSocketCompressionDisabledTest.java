@@ -0,0 +1,41 @@
+package org.iris_events.router.ws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.nullValue;
+import static org.iris_events.router.ws.WebSocketCompressionTest.EXTENSIONS_HEADER;
+import static org.iris_events.router.ws.WebSocketCompressionTest.upgradeHeaders;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.vertx.core.Vertx;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+@TestProfile(WebSocketCompressionDisabledTest.CompressionDisabled.class)
+class WebSocketCompressionDisabledTest {
+
+    @TestHTTPResource("/v0/websocket")
+    URI uri;
+
+    @Inject
+    Vertx vertx;
+
+    @Test
+    void doesNotNegotiateCompression() throws Exception {
+        assertThat(upgradeHeaders(vertx, uri).get(EXTENSIONS_HEADER), nullValue());
+    }
+
+    public static class CompressionDisabled implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("iris.router.compression.enabled", "false");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.iris_events.router.ws;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.WebSocketClientOptions;
+import io.vertx.core.http.WebSocketConnectOptions;
+import jakarta.inject.Inject;
+
+/**
+ * Negotiation of permessage-deflate on real upgrades of the websocket endpoint.
+ */
+@QuarkusTest
+class WebSocketCompressionTest {
+
+    static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+
+    @TestHTTPResource("/v0/websocket")
+    URI uri;
+
+    @Inject
+    Vertx vertx;
+
+    @Test
+    void negotiatesPerMessageDeflate() throws Exception {
+        assertThat(upgradeHeaders(vertx, uri).get(EXTENSIONS_HEADER), startsWith("permessage-deflate"));
+    }
+
+    /**
+     * @return handshake response headers of a client offering permessage-deflate
+     */
+    static MultiMap upgradeHeaders(final Vertx vertx, final URI uri) throws Exception {
+        final var client = vertx.createWebSocketClient(new WebSocketClientOptions()
+                .setTryUsePerMessageCompression(true)
+                .setTryUsePerFrameCompression(false));
+        try {
+            final var webSocket = client.connect(new WebSocketConnectOptions()
+                    .setHost(uri.getHost())
+                    .setPort(uri.getPort())
+                    .setURI(uri.getPath()))
+                    .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            final var headers = MultiMap.caseInsensitiveMultiMap().addAll(webSocket.headers());
+            webSocket.close().toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+            return headers;
+        } finally {
+            client.close();
+        }
+    }
+}
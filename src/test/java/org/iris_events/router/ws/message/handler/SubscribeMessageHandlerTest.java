@@ -130,6 +130,7 @@ class SubscribeMessageHandlerTest {
 
         messageHandler.handle(userSession, requestWrapper);
 
+        verify(websocketRegistry).subscribe(userSession, resourceType, resourceId);
         verify(backendService).sendInternalEvent(userSession, requestWrapper.clientTraceId(),
                 new SubscribeInternal(resourceType, resourceId));
     }
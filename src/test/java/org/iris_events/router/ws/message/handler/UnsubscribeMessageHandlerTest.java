@@ -0,0 +1,54 @@
+package org.iris_events.router.ws.message.handler;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.iris_events.router.model.RequestWrapper;
+import org.iris_events.router.model.UserSession;
+import org.iris_events.router.model.sub.Resource;
+import org.iris_events.router.model.sub.Unsubscribe;
+import org.iris_events.router.model.sub.UnsubscribeInternal;
+import org.iris_events.router.service.BackendService;
+import org.iris_events.router.service.WebsocketRegistry;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.test.InjectMock;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+@QuarkusTest
+class UnsubscribeMessageHandlerTest {
+
+    @Inject
+    @Named(UnsubscribeMessageHandler.EVENT_NAME)
+    UnsubscribeMessageHandler messageHandler;
+
+    @InjectMock
+    BackendService backendService;
+
+    @InjectMock
+    WebsocketRegistry websocketRegistry;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Test
+    void unsubscribe() {
+        final var userSession = mock(UserSession.class);
+        final var unsubscribe = new Unsubscribe(List.of(new Resource("resourceType", "resourceId")));
+        final var requestWrapper = new RequestWrapper(UnsubscribeMessageHandler.EVENT_NAME, UUID.randomUUID().toString(),
+                objectMapper.valueToTree(unsubscribe));
+
+        messageHandler.handle(userSession, requestWrapper);
+
+        verify(websocketRegistry).unsubscribe(userSession, "resourceType", "resourceId");
+        verify(backendService).sendInternalEvent(userSession, requestWrapper.clientTraceId(),
+                new UnsubscribeInternal("resourceType", "resourceId"));
+    }
+}